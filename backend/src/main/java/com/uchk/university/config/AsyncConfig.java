@@ -0,0 +1,158 @@
+package com.uchk.university.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Enables @Async and declares the executors it may use.
+ * Background document work runs on its own bounded pool so a burst of uploads cannot starve
+ * other asynchronous work; when the queue is full, submissions are rejected rather than run on
+ * the request thread.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+    public static final String DOCUMENT_TASK_EXECUTOR = "documentTaskExecutor";
+    public static final String NOTIFICATION_PUSH_EXECUTOR = "notificationPushExecutor";
+    public static final String NOTIFICATION_BROADCAST_EXECUTOR = "notificationBroadcastExecutor";
+    public static final String PASSWORD_HASHING_EXECUTOR = "passwordHashingExecutor";
+    public static final String STUDENT_IMPORT_EXECUTOR = "studentImportExecutor";
+    public static final String STUDENT_IMPORT_HASHING_EXECUTOR = "studentImportHashingExecutor";
+    public static final String EXPORT_EXECUTOR = "exportExecutor";
+
+    @Bean(name = DOCUMENT_TASK_EXECUTOR)
+    public ThreadPoolTaskExecutor documentTaskExecutor(
+            @Value("${document.processing.pool-size:2}") int poolSize,
+            @Value("${document.processing.queue-capacity:500}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("document-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Writes server-sent events, so a slow client never blocks the thread that produced the
+     * notification. Events that do not fit in the queue are dropped.
+     */
+    @Bean(name = NOTIFICATION_PUSH_EXECUTOR)
+    public ThreadPoolTaskExecutor notificationPushExecutor(
+            @Value("${notification.stream.push-pool-size:2}") int poolSize,
+            @Value("${notification.stream.push-queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("notification-push-");
+        return executor;
+    }
+
+    /**
+     * Runs notification broadcasts one at a time; broadcasts submitted while the queue is full
+     * are rejected.
+     */
+    @Bean(name = NOTIFICATION_BROADCAST_EXECUTOR)
+    public ThreadPoolTaskExecutor notificationBroadcastExecutor(
+            @Value("${notification.broadcast.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("notification-broadcast-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Runs password hashing (BCrypt), bounding how many cores logins and registrations can take.
+     * Callers wait for the result; when the queue is full they are rejected (503). A pool size of
+     * 0 uses half the processors, so a burst leaves the other half to the rest of the API.
+     */
+    @Bean(name = PASSWORD_HASHING_EXECUTOR)
+    public ThreadPoolTaskExecutor passwordHashingExecutor(
+            @Value("${security.password.hashing.pool-size:0}") int configuredPoolSize,
+            @Value("${security.password.hashing.queue-capacity:32}") int queueCapacity) {
+        int poolSize = configuredPoolSize > 0 ? configuredPoolSize : defaultPasswordHashingPoolSize();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-hashing-");
+        return executor;
+    }
+
+    /**
+     * Runs bulk student imports one at a time; further imports wait in the queue.
+     */
+    @Bean(name = STUDENT_IMPORT_EXECUTOR)
+    public ThreadPoolTaskExecutor studentImportExecutor(
+            @Value("${student.import.queue-capacity:5}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("student-import-");
+        return executor;
+    }
+
+    /**
+     * Threads an import hashes passwords from, each handing one hash at a time to the password
+     * hashing pool. Their number caps how much of that pool an import takes, leaving the rest to
+     * logins; 0 uses half the default password hashing pool.
+     */
+    @Bean(name = STUDENT_IMPORT_HASHING_EXECUTOR)
+    public ThreadPoolTaskExecutor studentImportHashingExecutor(
+            @Value("${student.import.hashing-concurrency:0}") int configuredConcurrency) {
+        int concurrency = configuredConcurrency > 0
+                ? configuredConcurrency
+                : Math.max(1, defaultPasswordHashingPoolSize() / 2);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setThreadNamePrefix("student-import-hashing-");
+        return executor;
+    }
+
+    /**
+     * Writes file exports, one thread per export for its whole length. DirectoryExporter admits at
+     * most export.concurrency of them, so the queue only covers a thread still finishing the
+     * previous one.
+     */
+    @Bean(name = EXPORT_EXECUTOR)
+    public ThreadPoolTaskExecutor exportExecutor(@Value("${export.concurrency:4}") int concurrency) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(concurrency);
+        executor.setThreadNamePrefix("export-");
+        return executor;
+    }
+
+    /**
+     * Spring Boot's default executor (used by unqualified @Async and MVC async requests). It backs
+     * off as soon as any other executor bean exists, so it is declared here explicitly.
+     */
+    @Bean(name = {
+            TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME
+    })
+    @Primary
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    private static int defaultPasswordHashingPoolSize() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+}
@@ -0,0 +1,19 @@
+package com.uchk.university.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables Spring's cache abstraction. The cache manager itself (Caffeine, with size/TTL bounds
+ * and statistics) is auto-configured from the spring.cache.* properties, and Actuator binds
+ * every cache declared in spring.cache.cache-names to Micrometer.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    /** Security principals loaded for bearer-token requests, keyed by username */
+    public static final String USER_DETAILS_CACHE = "userDetails";
+
+    /** User entities resolved for @CurrentUser and username lookups, keyed by username */
+    public static final String USERS_CACHE = "users";
+}
@@ -1,15 +1,31 @@
 package com.uchk.university.config;
 
+import com.uchk.university.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+
 @Configuration
 public class PasswordEncoderConfig {
 
+    /**
+     * BCrypt on the bounded password hashing pool (see AsyncConfig). The strength applies to new
+     * hashes; existing hashes keep the cost they were created with.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${security.password.bcrypt-strength:10}") int strength,
+            @Qualifier(AsyncConfig.PASSWORD_HASHING_EXECUTOR) TaskExecutor passwordHashingExecutor,
+            @Value("${security.password.hashing.max-wait:PT2S}") Duration maxWait,
+            MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), passwordHashingExecutor,
+                maxWait, meterRegistry);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,69 @@
+package com.uchk.university.config;
+
+import com.uchk.university.security.ratelimit.JdbcRateLimitStore;
+import com.uchk.university.security.ratelimit.LocalRateLimitStore;
+import com.uchk.university.security.ratelimit.LoginRateLimitFilter;
+import com.uchk.university.security.ratelimit.RateLimitProperties;
+import com.uchk.university.security.ratelimit.RateLimitStore;
+import com.uchk.university.security.ratelimit.RequestThrottleFilter;
+import com.uchk.university.security.ratelimit.SlidingWindowRateLimiter;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Rate limiters and the store backing the login limit, driven by security.rate-limit.*:
+ * {@code store=local} keeps bounded counters on each node, {@code store=jdbc} shares them
+ * through the database so the login limit holds across nodes.
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    @Bean
+    public RateLimitStore rateLimitStore(RateLimitProperties properties, JdbcTemplate jdbcTemplate) {
+        return switch (properties.getStore()) {
+            case "local" -> new LocalRateLimitStore(properties.getMaxKeys());
+            case "jdbc" -> new JdbcRateLimitStore(jdbcTemplate);
+            default -> throw new IllegalArgumentException("Unknown security.rate-limit.store: " + properties.getStore());
+        };
+    }
+
+    /**
+     * At most {@code limit} login attempts per client address and username in any
+     * {@code refresh-period}.
+     */
+    @Bean
+    public SlidingWindowRateLimiter loginRateLimiter(RateLimitStore rateLimitStore, RateLimitProperties properties) {
+        return new SlidingWindowRateLimiter(rateLimitStore, "login", properties.getLimit(), properties.getRefreshPeriod());
+    }
+
+    /**
+     * At most {@code login-address-budget.limit} login attempts per client address in any
+     * {@code login-address-budget.period}, whatever the usernames, so one address cannot spray
+     * passwords across many accounts.
+     */
+    @Bean
+    public SlidingWindowRateLimiter loginAddressRateLimiter(RateLimitStore rateLimitStore, RateLimitProperties properties) {
+        RateLimitProperties.Budget budget = properties.getLoginAddressBudget();
+        return new SlidingWindowRateLimiter(rateLimitStore, "login address", budget.getLimit(), budget.getPeriod());
+    }
+
+    // Both filters run inside the security chain (see SecurityConfig), not as servlet filters,
+    // so the throttle sees the authenticated user
+    @Bean
+    public FilterRegistrationBean<LoginRateLimitFilter> loginRateLimitFilterRegistration(LoginRateLimitFilter filter) {
+        FilterRegistrationBean<LoginRateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestThrottleFilter> requestThrottleFilterRegistration(RequestThrottleFilter filter) {
+        FilterRegistrationBean<RequestThrottleFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+}
@@ -1,6 +1,9 @@
 package com.uchk.university.config;
 
 import com.uchk.university.security.JwtAuthenticationFilter;
+import com.uchk.university.security.ratelimit.LoginRateLimitFilter;
+import com.uchk.university.security.ratelimit.RequestThrottleFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -35,6 +38,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final LoginRateLimitFilter loginRateLimitFilter;
+    private final RequestThrottleFilter requestThrottleFilter;
     private final UserDetailsService userDetailsService;
     
     @Value("${cors.allowed-origins:http://localhost:4200,http://localhost:8080}")
@@ -90,10 +95,10 @@ public class SecurityConfig {
                 .xssProtection(xss -> xss.headerValue(XXssProtectionHeaderWriter.HeaderValue.ENABLED_MODE_BLOCK))
                 .referrerPolicy(referrer -> referrer
                     .policy(ReferrerPolicyHeaderWriter.ReferrerPolicy.STRICT_ORIGIN_WHEN_CROSS_ORIGIN))
-                .permissionsPolicy(permissions -> permissions
-                    .policy("camera=(), microphone=(), geolocation=(), payment=()"))
                 // Adding Cache Control headers
                 .cacheControl(cache -> {})
+                .permissionsPolicy(permissions -> permissions
+                    .policy("camera=(), microphone=(), geolocation=(), payment=()"))
             )
             
             // Force HTTPS in production
@@ -104,6 +109,9 @@ public class SecurityConfig {
             })
             
             .authorizeHttpRequests(auth -> auth
+                // Async dispatches resume a request that was already authorized (notification stream)
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                
                 // Public endpoints - accessible without authentication
                 .requestMatchers("/api/auth/login", "/api/auth/register").permitAll()
                 .requestMatchers("/api/public/**").permitAll()
@@ -120,6 +128,7 @@ public class SecurityConfig {
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
                 .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.POST, "/api/students").hasAnyRole("ADMIN", "STUDENT")
+                .requestMatchers(HttpMethod.POST, "/api/students/import").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.DELETE, "/api/students/**").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.DELETE, "/api/formations/**").hasRole("ADMIN")
                 
@@ -161,7 +170,11 @@ public class SecurityConfig {
                 // All other requests require authentication
                 .anyRequest().authenticated()
             )
+            // Login attempts are counted before any authentication work
+            .addFilterBefore(loginRateLimitFilter, UsernamePasswordAuthenticationFilter.class)
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+            // Per-client request budgets, once the user is known
+            .addFilterAfter(requestThrottleFilter, UsernamePasswordAuthenticationFilter.class)
             .exceptionHandling(ex -> ex
                 .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
             );
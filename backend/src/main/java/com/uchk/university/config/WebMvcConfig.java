@@ -1,25 +1,48 @@
 package com.uchk.university.config;
 
 import com.uchk.university.security.CurrentUserArgumentResolver;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.time.Duration;
 import java.util.List;
 
 @Configuration
-@RequiredArgsConstructor
 public class WebMvcConfig implements WebMvcConfigurer {
     
     private final CurrentUserArgumentResolver currentUserArgumentResolver;
+    private final ThreadPoolTaskExecutor exportExecutor;
+    private final Duration exportTimeout;
+
+    public WebMvcConfig(CurrentUserArgumentResolver currentUserArgumentResolver,
+                        @Qualifier(AsyncConfig.EXPORT_EXECUTOR) ThreadPoolTaskExecutor exportExecutor,
+                        @Value("${export.timeout:PT30M}") Duration exportTimeout) {
+        this.currentUserArgumentResolver = currentUserArgumentResolver;
+        this.exportExecutor = exportExecutor;
+        this.exportTimeout = exportTimeout;
+    }
     
     @Override
     public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
         resolvers.add(currentUserArgumentResolver);
     }
 
+    /**
+     * File exports (StreamingResponseBody) are the only async handlers run on the MVC executor
+     * and bound by the default timeout; the notification stream sets its own.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(exportExecutor);
+        configurer.setDefaultTimeout(exportTimeout.toMillis());
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/api/**")
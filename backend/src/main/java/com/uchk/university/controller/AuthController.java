@@ -4,6 +4,7 @@ import com.uchk.university.dto.LoginRequest;
 import com.uchk.university.dto.LoginResponse;
 import com.uchk.university.dto.UserDto;
 import com.uchk.university.entity.User;
+import com.uchk.university.exception.PasswordHashingUnavailableException;
 import com.uchk.university.service.AuthService;
 import com.uchk.university.service.UserService;
 import jakarta.servlet.http.HttpServletRequest;
@@ -17,13 +18,8 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -32,134 +28,21 @@ public class AuthController {
     private final AuthService authService;
     private final UserService userService;
     private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
-    
-    // More robust rate limiting implementation
-    private final ConcurrentHashMap<String, LoginAttempt> loginAttempts = new ConcurrentHashMap<>();
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
-    
-    // Constants for rate limiting
-    private static final int MAX_ATTEMPTS = 5;
-    private static final int LOCKOUT_MINUTES = 15;
-    private static final int CLEANUP_INTERVAL_MINUTES = 60;
-    
-    // Enhanced LoginAttempt with more secure lockout mechanism
-    private static class LoginAttempt {
-        private int count;
-        private LocalDateTime lastAttempt;
-        private boolean locked;
-        private LocalDateTime lockedUntil;
-        
-        public LoginAttempt() {
-            this.count = 1;
-            this.lastAttempt = LocalDateTime.now();
-            this.locked = false;
-        }
-        
-        public void increment() {
-            this.count++;
-            this.lastAttempt = LocalDateTime.now();
-            
-            // If threshold exceeded, lock the account
-            if (count >= MAX_ATTEMPTS && !locked) {
-                this.locked = true;
-                this.lockedUntil = LocalDateTime.now().plusMinutes(LOCKOUT_MINUTES);
-            }
-        }
-        
-        public boolean isLocked() {
-            // If locked but lock period expired, unlock
-            if (locked && LocalDateTime.now().isAfter(lockedUntil)) {
-                locked = false;
-                count = 0;
-                return false;
-            }
-            return locked;
-        }
-        
-        public void reset() {
-            this.count = 0;
-            this.lastAttempt = LocalDateTime.now();
-            this.locked = false;
-            this.lockedUntil = null;
-        }
-        
-        public boolean shouldCleanup() {
-            // Clean up records older than twice the lockout period
-            return !locked && lastAttempt.plusMinutes(LOCKOUT_MINUTES * 2).isBefore(LocalDateTime.now());
-        }
-    }
-    
-    // Cleanup expired login attempts
-    private void cleanupExpiredAttempts() {
-        loginAttempts.entrySet().removeIf(entry -> entry.getValue().shouldCleanup());
-    }
-    
-    // Get client IP with X-Forwarded-For header support
-    private String getClientIp(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            // Get the first IP which is the client's IP
-            return xForwardedFor.split(",")[0].trim();
-        }
-        return request.getRemoteAddr();
-    }
-
-    // Schedule periodic cleanup of old login attempts
-    {
-        scheduler.scheduleAtFixedRate(this::cleanupExpiredAttempts, 
-                                     CLEANUP_INTERVAL_MINUTES, 
-                                     CLEANUP_INTERVAL_MINUTES, 
-                                     TimeUnit.MINUTES);
-    }
 
+    // Attempts are limited per client address and username by LoginRateLimitFilter
     @PostMapping("/login")
     public ResponseEntity<?> login(
             @Valid @RequestBody LoginRequest loginRequest,
             HttpServletRequest request) {
-        
-        // Get client IP for rate limiting with proxy support
-        String clientIp = getClientIp(request);
-        String usernameHash = String.valueOf(loginRequest.getUsername().hashCode());
-        // Use composite key of IP + username hash to prevent username enumeration while limiting by username
-        String rateLimitKey = clientIp + ":" + usernameHash;
-        
-        // Check for rate limiting
-        if (loginAttempts.containsKey(rateLimitKey) && loginAttempts.get(rateLimitKey).isLocked()) {
-            LoginAttempt attempt = loginAttempts.get(rateLimitKey);
-            
-            Map<String, String> response = new HashMap<>();
-            response.put("error", "too_many_attempts");
-            response.put("message", "Too many login attempts. Please try again later.");
-            
-            // Don't log the actual username to prevent log-based username enumeration
-            logger.warn("Blocked login attempt due to rate limiting. IP: {}", clientIp);
-            
-            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(response);
-        }
-        
         try {
             LoginResponse loginResponse = authService.login(loginRequest);
-            
-            // On successful login, reset attempts
-            loginAttempts.computeIfPresent(rateLimitKey, (k, v) -> {
-                v.reset();
-                return v;
-            });
-            
             return ResponseEntity.ok(loginResponse);
+        } catch (PasswordHashingUnavailableException e) {
+            // Saturated, not a failed attempt: answered with 503 by GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
-            // On failed login, increment attempts
-            loginAttempts.compute(rateLimitKey, (k, v) -> {
-                if (v == null) {
-                    return new LoginAttempt();
-                } else {
-                    v.increment();
-                    return v;
-                }
-            });
-            
             // Log failure but don't reveal if username exists or not
-            logger.warn("Failed login attempt from IP: {}", clientIp);
+            logger.warn("Failed login attempt from IP: {}", request.getRemoteAddr());
             
             // Return 401 for authentication failure
             Map<String, String> response = new HashMap<>();
@@ -197,6 +80,8 @@ public class AuthController {
             response.put("message", "User registered successfully");
             
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (PasswordHashingUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             Map<String, String> response = new HashMap<>();
             response.put("error", "registration_failed");
@@ -2,17 +2,23 @@ package com.uchk.university.controller;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.uchk.university.dto.CursorPage;
+import com.uchk.university.dto.DocumentSummary;
+import com.uchk.university.dto.DocumentUploadRequest;
 import com.uchk.university.entity.Document;
 import com.uchk.university.entity.DocumentType;
+import com.uchk.university.service.DocumentSearchService;
 import com.uchk.university.service.DocumentService;
+import com.uchk.university.service.FileDownloadService;
 import com.uchk.university.security.CurrentUser;
 import com.uchk.university.entity.User;
 import com.uchk.university.repository.UserRepository; 
-import lombok.RequiredArgsConstructor;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.Part;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -23,49 +29,97 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.util.StringUtils;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/documents")
-@RequiredArgsConstructor
 public class DocumentController {
     private static final Logger log = LoggerFactory.getLogger(DocumentController.class);
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_QUERY_LENGTH = 200;
     private final DocumentService documentService;
+    private final FileDownloadService fileDownloadService;
+    private final DocumentSearchService documentSearchService;
     private final UserRepository userRepository;
+    // Shared, immutable reader derived from the application's configured ObjectMapper
+    private final ObjectReader uploadMetadataReader;
+
+    public DocumentController(DocumentService documentService, FileDownloadService fileDownloadService,
+                              DocumentSearchService documentSearchService, UserRepository userRepository,
+                              ObjectMapper objectMapper) {
+        this.documentService = documentService;
+        this.fileDownloadService = fileDownloadService;
+        this.documentSearchService = documentSearchService;
+        this.userRepository = userRepository;
+        this.uploadMetadataReader = objectMapper.readerFor(DocumentUploadRequest.class);
+    }
 
     @GetMapping
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<Document>> getAllDocuments(@CurrentUser User currentUser) {
+    public ResponseEntity<CursorPage<DocumentSummary>> getAllDocuments(
+            @CurrentUser User currentUser,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
         if (currentUser == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         
         try {
-            List<Document> documents = documentService.getDocumentsForUser(currentUser.getId());
-            return ResponseEntity.ok(documents);
+            int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+            return ResponseEntity.ok(documentService.getDocumentsForUser(currentUser, cursor, pageSize));
+        } catch (IllegalArgumentException e) {
+            // Malformed cursor
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Error getting documents for user: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    @GetMapping("/search")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<CursorPage<DocumentSummary>> searchDocuments(
+            @CurrentUser User currentUser,
+            @RequestParam("q") String query,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        if (currentUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!StringUtils.hasText(query) || query.length() > MAX_SEARCH_QUERY_LENGTH) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        try {
+            int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+            return ResponseEntity.ok(documentSearchService.search(currentUser, query.trim(), cursor, pageSize));
+        } catch (IllegalArgumentException e) {
+            // Malformed cursor
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error searching documents: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @PostMapping(consumes = {MediaType.MULTIPART_FORM_DATA_VALUE})
     @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER', 'FORMATION_MANAGER', 'ADMINISTRATION')")
     public ResponseEntity<?> createDocument(
-            @RequestPart("document") String documentJson,
+            @RequestPart("document") Part documentPart,
             @RequestPart(value = "file", required = false) MultipartFile file,
             @CurrentUser User currentUser) {
         try {
-            // Parse JSON manually for more control
-            ObjectMapper mapper = new ObjectMapper();
-            Document document = mapper.readValue(documentJson, Document.class);
+            // Bind metadata straight from the part stream, whatever its declared content type
+            DocumentUploadRequest metadata = readMetadata(documentPart);
     
             // Validate document
-            validateDocument(document);
+            validateDocument(metadata);
     
-            document.setType(parseDocumentType(document.getType()));
-            Document createdDocument = documentService.createDocument(document, currentUser.getId(), file);
+            Document createdDocument = documentService.createDocument(toDocument(metadata), currentUser.getId(), file);
             return ResponseEntity.status(HttpStatus.CREATED).body(createdDocument);
         } catch (JsonProcessingException e) {
             log.error("Invalid document JSON: {}", e.getMessage());
@@ -84,7 +138,7 @@ public class DocumentController {
     @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER', 'FORMATION_MANAGER', 'ADMINISTRATION')")
     public ResponseEntity<?> updateDocument(
             @PathVariable Long id,
-            @RequestPart("document") Document document,
+            @RequestPart("document") Part documentPart,
             @RequestPart(value = "file", required = false) MultipartFile file,
             @CurrentUser User currentUser) {
         if (currentUser == null) {
@@ -98,9 +152,12 @@ public class DocumentController {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You don't have permission to update this document");
             }
             
-            document.setType(parseDocumentType(document.getType()));
+            Document document = toDocument(readMetadata(documentPart));
             Document updatedDocument = documentService.updateDocument(id, document, file);
             return ResponseEntity.ok(updatedDocument);
+        } catch (JsonProcessingException e) {
+            log.error("Invalid document JSON: {}", e.getMessage());
+            return ResponseEntity.badRequest().body("Invalid document format");
         } catch (AccessDeniedException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
         } catch (Exception e) {
@@ -171,7 +228,8 @@ public class DocumentController {
 
     @GetMapping("/download/{id}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<?> downloadDocument(@PathVariable Long id, @CurrentUser User currentUser) {
+    public ResponseEntity<?> downloadDocument(@PathVariable Long id, @CurrentUser User currentUser,
+                                              HttpServletRequest request, HttpServletResponse response) {
         if (currentUser == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
@@ -184,48 +242,95 @@ public class DocumentController {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You don't have access to this document");
             }
             
-            Resource resource = documentService.loadFileAsResource(id);
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, 
-                            "attachment; filename=\"" + resource.getFilename() + "\"")
-                    .body(resource);
+            Path file = documentService.loadFilePath(document);
+            String downloadName = StringUtils.hasText(document.getFileName())
+                    ? document.getFileName()
+                    : file.getFileName().toString();
+            fileDownloadService.sendFile(request, response, file, downloadName,
+                    document.getContentType(), document.getContentHash());
+            // Status, headers and body have been written to the response
+            return null;
         } catch (Exception e) {
+            if (response.isCommitted()) {
+                // Typically the client went away mid-transfer; it will resume with a Range request
+                log.debug("Download of document {} interrupted: {}", id, e.getMessage());
+                return null;
+            }
             log.error("Error downloading document: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body("An error occurred while downloading the document");
         }
     }
 
+    @GetMapping("/{id}/preview")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> getDocumentPreview(@PathVariable Long id, @CurrentUser User currentUser,
+                                                HttpServletRequest request, HttpServletResponse response) {
+        if (currentUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        try {
+            Document document = documentService.getDocumentById(id);
+            if (!documentService.userHasAccessToDocument(document, currentUser)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You don't have access to this document");
+            }
+            if (document.getPreviewPath() == null) {
+                // Not generated (yet), or the file type has no preview
+                return ResponseEntity.notFound().build();
+            }
+            
+            Path preview = documentService.loadPreviewPath(document);
+            fileDownloadService.sendFile(request, response, preview, "preview-" + id + ".png",
+                    MediaType.IMAGE_PNG_VALUE, null);
+            return null;
+        } catch (Exception e) {
+            if (response.isCommitted()) {
+                return null;
+            }
+            log.error("Error getting document preview: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("An error occurred while retrieving the preview");
+        }
+    }
+
     // Helper method for security expression
     public boolean checkDocumentCreator(Long documentId, String username) {
         return documentService.isDocumentCreator(documentId, username);
     }
 
-    private DocumentType parseDocumentType(Object typeObj) {
-        if (typeObj == null) {
-            return DocumentType.AUTRE;
+    private DocumentUploadRequest readMetadata(Part documentPart) throws IOException {
+        try (InputStream in = documentPart.getInputStream()) {
+            return uploadMetadataReader.readValue(in);
         }
-        
-        if (typeObj instanceof DocumentType) {
-            return (DocumentType) typeObj;
+    }
+
+    private Document toDocument(DocumentUploadRequest metadata) {
+        Document document = new Document();
+        document.setTitle(metadata.getTitle());
+        document.setDescription(metadata.getDescription());
+        document.setType(parseDocumentType(metadata.getType()));
+        document.setVisibilityLevel(metadata.getVisibilityLevel());
+        return document;
+    }
+
+    private DocumentType parseDocumentType(String type) {
+        if (type == null) {
+            return DocumentType.AUTRE;
         }
         
-        if (typeObj instanceof String) {
-            try {
-                return DocumentType.valueOf(((String) typeObj).toUpperCase().replace(" ", "_"));
-            } catch (IllegalArgumentException e) {
-                return DocumentType.AUTRE;
-            }
+        try {
+            return DocumentType.valueOf(type.toUpperCase().replace(" ", "_"));
+        } catch (IllegalArgumentException e) {
+            return DocumentType.AUTRE;
         }
-        
-        return DocumentType.AUTRE;
     }
 
-    private void validateDocument(Document document) {
-        if (document.getTitle() == null || document.getTitle().isEmpty()) {
+    private void validateDocument(DocumentUploadRequest metadata) {
+        if (metadata.getTitle() == null || metadata.getTitle().isEmpty()) {
             throw new IllegalArgumentException("Document title is required");
         }
-        if (document.getType() == null) {
+        if (metadata.getType() == null) {
             throw new IllegalArgumentException("Document type is required");
         }
     }
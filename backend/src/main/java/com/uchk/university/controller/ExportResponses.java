@@ -0,0 +1,42 @@
+package com.uchk.university.controller;
+
+import com.uchk.university.service.DirectoryExporter;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+/**
+ * Responses for the file export endpoints: the file as an attachment, written after the handler
+ * returns, or 503 when too many exports are already in progress.
+ */
+final class ExportResponses {
+    private ExportResponses() {
+    }
+
+    static ResponseEntity<StreamingResponseBody> attachment(Supplier<DirectoryExporter.Export> export) {
+        DirectoryExporter.Export file;
+        try {
+            file = export.get();
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(file.getFormat().getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(file.getFileName(), StandardCharsets.UTF_8)
+                        .build()
+                        .toString())
+                .cacheControl(CacheControl.noStore())
+                .body(file.getBody());
+    }
+}
@@ -3,20 +3,28 @@ package com.uchk.university.controller;
 import com.uchk.university.entity.Formation;
 import com.uchk.university.entity.Staff;
 import com.uchk.university.entity.Student;
+import com.uchk.university.service.DirectoryExporter;
+import com.uchk.university.service.FormationCatalogue;
 import com.uchk.university.service.FormationService;
 import com.uchk.university.service.StaffService;
 import com.uchk.university.service.StudentService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/formations")
@@ -26,24 +34,38 @@ public class FormationController {
     private final StaffService staffService;
     private final StudentService studentService; // Added to properly implement my-formation endpoint
 
+    @Value("${formation.catalogue.http-max-age:PT1M}")
+    private Duration catalogueMaxAge;
+
     @GetMapping("/{id}")
-    public ResponseEntity<Formation> getFormationById(@PathVariable Long id) {
-        return ResponseEntity.ok(formationService.getFormationById(id));
+    public ResponseEntity<Formation> getFormationById(@PathVariable Long id, WebRequest request) {
+        return catalogueResponse(request, () -> formationService.getFormationById(id));
     }
 
     @GetMapping
-    public ResponseEntity<List<Formation>> getAllFormations() {
-        return ResponseEntity.ok(formationService.getAllFormations());
+    public ResponseEntity<List<Formation>> getAllFormations(WebRequest request) {
+        return catalogueResponse(request, formationService::getAllFormations);
     }
 
     @GetMapping("/type/{type}")
-    public ResponseEntity<List<Formation>> getFormationsByType(@PathVariable String type) {
-        return ResponseEntity.ok(formationService.getFormationsByType(type));
+    public ResponseEntity<List<Formation>> getFormationsByType(@PathVariable String type, WebRequest request) {
+        return catalogueResponse(request, () -> formationService.getFormationsByType(type));
     }
 
     @GetMapping("/level/{level}")
-    public ResponseEntity<List<Formation>> getFormationsByLevel(@PathVariable String level) {
-        return ResponseEntity.ok(formationService.getFormationsByLevel(level));
+    public ResponseEntity<List<Formation>> getFormationsByLevel(@PathVariable String level, WebRequest request) {
+        return catalogueResponse(request, () -> formationService.getFormationsByLevel(level));
+    }
+
+    // The catalogue as a file, format csv (default) or xlsx, optionally of one type and/or level
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'FORMATION_MANAGER')")
+    public ResponseEntity<StreamingResponseBody> exportFormations(
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String level,
+            @RequestParam(defaultValue = "csv") String format) {
+        DirectoryExporter.Format exportFormat = DirectoryExporter.Format.of(format);
+        return ExportResponses.attachment(() -> formationService.exportFormations(type, level, exportFormat));
     }
 
     // Implement my-formation endpoint for students
@@ -84,6 +106,23 @@ public class FormationController {
         return ResponseEntity.ok(trainers);
     }
 
+    /**
+     * Answers 304 from the catalogue version alone when the client's copy is current, before the
+     * body is looked up. Anonymous responses may be kept by browsers and shared proxies for
+     * formation.catalogue.http-max-age; authenticated ones are private and always revalidated.
+     */
+    private <T> ResponseEntity<T> catalogueResponse(WebRequest request, Supplier<T> body) {
+        FormationCatalogue.Version version = formationService.getCatalogueVersion();
+        CacheControl cacheControl = request.getUserPrincipal() == null
+                ? CacheControl.maxAge(catalogueMaxAge).cachePublic()
+                : CacheControl.noCache().cachePrivate();
+        // Sets the ETag / Last-Modified headers, and the 304 status when they match
+        if (request.checkNotModified(version.getEtag(), version.getLastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().cacheControl(cacheControl).body(body.get());
+    }
+
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'FORMATION_MANAGER')")
     public ResponseEntity<Formation> createFormation(@Valid @RequestBody Formation formation) {
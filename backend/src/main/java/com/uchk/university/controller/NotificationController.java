@@ -1,22 +1,91 @@
 package com.uchk.university.controller;
 
+import com.uchk.university.dto.BroadcastStatus;
+import com.uchk.university.dto.CursorPage;
+import com.uchk.university.dto.NotificationBatchRequest;
+import com.uchk.university.dto.NotificationBroadcastRequest;
 import com.uchk.university.dto.NotificationDto;  // Change to match actual class name
+import com.uchk.university.entity.User;
+import com.uchk.university.security.CurrentUser;
+import com.uchk.university.security.JwtTokenUtil;
 import com.uchk.university.service.NotificationService;
+import com.uchk.university.service.NotificationStreamService;
+import com.uchk.university.service.UserService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/notifications")
 @RequiredArgsConstructor
 public class NotificationController {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final NotificationService notificationService;
+    private final NotificationStreamService notificationStreamService;
+    private final UserService userService;
+    private final JwtTokenUtil jwtTokenUtil;
 
     @GetMapping
-    public ResponseEntity<List<NotificationDto>> getNotifications(@RequestParam(defaultValue = "10") int limit) {
-        return ResponseEntity.ok(notificationService.getRecentNotificationsForCurrentUser(limit));
+    public ResponseEntity<CursorPage<NotificationDto>> getNotifications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        try {
+            return ResponseEntity.ok(notificationService.getNotificationsForCurrentUser(cursor, clamp(limit)));
+        } catch (IllegalArgumentException e) {
+            // Malformed cursor
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Issues a ticket for opening the stream. EventSource cannot set headers, so the stream
+     * takes it as ?access_token=; it expires within about a minute and opens nothing else.
+     */
+    @PostMapping("/stream/ticket")
+    public ResponseEntity<Map<String, String>> streamTicket(@CurrentUser User currentUser) {
+        if (currentUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        // Reloaded for the current token version, which a stateless principal does not carry
+        User user = userService.getUserById(currentUser.getId());
+        return ResponseEntity.ok(Map.of("ticket", jwtTokenUtil.generateStreamTicket(user)));
+    }
+
+    /**
+     * Server-sent event stream of new notifications and unread counts for the current user,
+     * authenticated by a ticket from {@link #streamTicket}.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@CurrentUser User currentUser) {
+        if (currentUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        SseEmitter emitter = notificationStreamService.connect(currentUser.getId());
+        if (emitter == null) {
+            // This node holds its maximum number of streams; EventSource retries on its own
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
+        }
+        return ResponseEntity.ok()
+                // Stop reverse proxies from buffering the stream
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
     }
 
     @GetMapping("/unread/count")
@@ -33,7 +102,7 @@ public class NotificationController {
     @GetMapping("/recent")
 public ResponseEntity<List<NotificationDto>> getRecentNotifications(
         @RequestParam(defaultValue = "5") int limit) {
-    return ResponseEntity.ok(notificationService.getRecentNotificationsForCurrentUser(limit));
+    return ResponseEntity.ok(notificationService.getRecentNotificationsForCurrentUser(clamp(limit)));
 }
 
 @PatchMapping("/{id}/read")
@@ -41,10 +110,51 @@ public ResponseEntity<NotificationDto> markNotificationAsRead(@PathVariable Long
     return ResponseEntity.ok(notificationService.markAsRead(id));
 }
 
+@PostMapping("/batch")
+public ResponseEntity<Integer> applyBatch(@Valid @RequestBody NotificationBatchRequest request) {
+    // Duplicated ids would only inflate the IN list
+    Set<Long> ids = new LinkedHashSet<>(request.getIds());
+    int affected = switch (request.getAction()) {
+        case READ -> notificationService.markAsRead(ids);
+        case DELETE -> notificationService.deleteNotifications(ids);
+    };
+    return ResponseEntity.ok(affected);
+}
+
+@PostMapping("/broadcast")
+@PreAuthorize("hasAnyRole('ADMIN', 'ADMINISTRATION')")
+public ResponseEntity<BroadcastStatus> broadcast(@Valid @RequestBody NotificationBroadcastRequest request) {
+    try {
+        BroadcastStatus status = notificationService.broadcast(request);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/api/notifications/broadcasts/{id}")
+                        .buildAndExpand(status.getId())
+                        .toUri())
+                .body(status);
+    } catch (TaskRejectedException e) {
+        // Too many broadcasts already queued
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "60")
+                .build();
+    }
+}
+
+@GetMapping("/broadcasts/{id}")
+@PreAuthorize("hasAnyRole('ADMIN', 'ADMINISTRATION')")
+public ResponseEntity<BroadcastStatus> getBroadcastStatus(@PathVariable String id) {
+    BroadcastStatus status = notificationService.getBroadcastStatus(id);
+    return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+}
+
 @PatchMapping("/read-all")
 public ResponseEntity<Void> markAllNotificationsAsRead() {
     notificationService.markAllAsRead();
     return ResponseEntity.ok().build();
 
     }
+
+    private static int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
 }
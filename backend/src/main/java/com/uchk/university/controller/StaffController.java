@@ -2,6 +2,7 @@ package com.uchk.university.controller;
 
 import com.uchk.university.dto.StaffDto;
 import com.uchk.university.entity.Staff;
+import com.uchk.university.service.DirectoryExporter;
 import com.uchk.university.service.StaffService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -9,6 +10,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -36,6 +38,17 @@ public class StaffController {
         return ResponseEntity.ok(staffService.getAllStaff());
     }
 
+    // All staff as a file, format csv (default) or xlsx, optionally of one department and/or position
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportStaff(
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) String position,
+            @RequestParam(defaultValue = "csv") String format) {
+        DirectoryExporter.Format exportFormat = DirectoryExporter.Format.of(format);
+        return ExportResponses.attachment(() -> staffService.exportStaff(department, position, exportFormat));
+    }
+
     @GetMapping("/department/{department}")
     @PreAuthorize("hasAnyRole('ADMIN', 'FORMATION_MANAGER')")
     public ResponseEntity<List<Staff>> getStaffByDepartment(@PathVariable String department) {
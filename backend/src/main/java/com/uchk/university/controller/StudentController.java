@@ -1,18 +1,36 @@
 package com.uchk.university.controller;
 
+import com.uchk.university.dto.OffsetPage;
 import com.uchk.university.dto.StudentDto;
+import com.uchk.university.dto.StudentFilter;
+import com.uchk.university.dto.StudentImportStatus;
+import com.uchk.university.dto.StudentSummary;
 import com.uchk.university.entity.Student;
+import com.uchk.university.service.DirectoryExporter;
 import com.uchk.university.service.StudentService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.SortDefault;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -23,6 +41,8 @@ import java.util.stream.Collectors;
 public class StudentController {
     private final StudentService studentService;
     private static final Logger logger = LoggerFactory.getLogger(StudentController.class);
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
 
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER', 'FORMATION_MANAGER') or @studentService.isCurrentUserStudent(#id)")
@@ -36,10 +56,33 @@ public class StudentController {
         return ResponseEntity.ok(studentService.getStudentByStudentId(studentId));
     }
 
+    /**
+     * Student directory: filters formationId, promo, startYear and name (prefix of first or last
+     * name), pagination with page and size, sort on studentId, firstName, lastName, promo,
+     * startYear, endYear or formation (e.g. sort=lastName,desc).
+     */
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER', 'FORMATION_MANAGER')")
-    public ResponseEntity<List<Student>> getAllStudents() {
-        return ResponseEntity.ok(studentService.getAllStudents());
+    public ResponseEntity<OffsetPage<StudentSummary>> getStudents(
+            StudentFilter filter,
+            @PageableDefault(size = DEFAULT_PAGE_SIZE, sort = {"lastName", "firstName"}) Pageable pageable) {
+        Pageable page = PageRequest.of(pageable.getPageNumber(),
+                Math.min(pageable.getPageSize(), MAX_PAGE_SIZE), pageable.getSort());
+        return ResponseEntity.ok(studentService.getStudentDirectory(filter, page));
+    }
+
+    /**
+     * The whole directory as a file, format csv (default) or xlsx, with the same filters and sort
+     * as the listing above.
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER', 'FORMATION_MANAGER')")
+    public ResponseEntity<StreamingResponseBody> exportStudents(
+            StudentFilter filter,
+            @SortDefault(sort = {"lastName", "firstName"}) Sort sort,
+            @RequestParam(defaultValue = "csv") String format) {
+        DirectoryExporter.Format exportFormat = DirectoryExporter.Format.of(format);
+        return ExportResponses.attachment(() -> studentService.exportStudents(filter, sort, exportFormat));
     }
 
     @GetMapping("/formation/{formationId}")
@@ -79,6 +122,39 @@ public class StudentController {
         }
     }
 
+    /**
+     * Bulk enrollment from a CSV or XLSX file whose header row names the StudentDto fields
+     * (username, password, email, studentId, firstName, lastName, birthDate as yyyy-MM-dd,
+     * formationId, promo, startYear, endYear). Runs in the background; poll the returned location
+     * for progress and the per-row error report.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StudentImportStatus> importStudents(@RequestParam("file") MultipartFile file)
+            throws IOException {
+        try {
+            StudentImportStatus status = studentService.startImport(file);
+            return ResponseEntity.accepted()
+                    .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                            .path("/api/students/imports/{id}")
+                            .buildAndExpand(status.getId())
+                            .toUri())
+                    .body(status);
+        } catch (TaskRejectedException e) {
+            // Too many imports already queued
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "60")
+                    .build();
+        }
+    }
+
+    @GetMapping("/imports/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StudentImportStatus> getImportStatus(@PathVariable String id) {
+        StudentImportStatus status = studentService.getImportStatus(id);
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or @studentService.isCurrentUserStudent(#id)")
     public ResponseEntity<Student> updateStudent(@PathVariable Long id, @Valid @RequestBody StudentDto studentDto) {
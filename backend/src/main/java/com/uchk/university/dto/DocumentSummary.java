@@ -0,0 +1,56 @@
+package com.uchk.university.dto;
+
+import com.uchk.university.entity.DocumentType;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * List view of a document: no file path and only the creator's id and username.
+ */
+@Data
+@NoArgsConstructor
+public class DocumentSummary {
+    private Long id;
+    private String title;
+    private String description;
+    private DocumentType type;
+    private String visibilityLevel;
+    private String fileName;
+    private String contentType;
+    private Long fileSize;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private Creator createdBy;
+
+    // Used by JPQL constructor expressions
+    public DocumentSummary(Long id, String title, String description, DocumentType type,
+                           String visibilityLevel, String fileName, String contentType, Long fileSize,
+                           LocalDateTime createdAt, LocalDateTime updatedAt,
+                           Long creatorId, String creatorUsername) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.type = type;
+        this.visibilityLevel = visibilityLevel;
+        this.fileName = fileName;
+        this.contentType = contentType;
+        this.fileSize = fileSize;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.createdBy = creatorId != null ? new Creator(creatorId, creatorUsername) : null;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Creator {
+        private Long id;
+        private String username;
+
+        public Creator(Long id, String username) {
+            this.id = id;
+            this.username = username;
+        }
+    }
+}
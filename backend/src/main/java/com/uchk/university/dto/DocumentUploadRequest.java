@@ -0,0 +1,19 @@
+package com.uchk.university.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Metadata part of a document upload ("document" part of the multipart request).
+ * Bound directly from the part stream; file details are taken from the "file" part.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentUploadRequest {
+    private String title;
+    private String description;
+    private String type;
+    private String visibilityLevel;
+}
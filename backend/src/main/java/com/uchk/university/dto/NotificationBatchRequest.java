@@ -0,0 +1,32 @@
+package com.uchk.university.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Applies one action to several of the current user's notifications in a single request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationBatchRequest {
+    public static final int MAX_IDS = 500;
+
+    public enum Action {
+        READ,
+        DELETE
+    }
+
+    @NotNull(message = "Action is required")
+    private Action action;
+
+    @NotEmpty(message = "At least one notification id is required")
+    @Size(max = MAX_IDS, message = "At most " + MAX_IDS + " notifications per request")
+    private List<@NotNull Long> ids;
+}
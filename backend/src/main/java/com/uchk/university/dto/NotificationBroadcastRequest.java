@@ -0,0 +1,30 @@
+package com.uchk.university.dto;
+
+import com.uchk.university.entity.NotificationType;
+import com.uchk.university.entity.Role;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Notification sent to every active user with a role, or every active student of a formation.
+ * Exactly one of {@code role} and {@code formationId} must be set.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationBroadcastRequest {
+    @NotBlank(message = "Message is required")
+    @Size(max = 255, message = "Message must be at most 255 characters")
+    private String message;
+
+    @NotNull(message = "Type is required")
+    private NotificationType type;
+
+    private Role role;
+
+    private Long formationId;
+}
@@ -1,7 +1,6 @@
 package com.uchk.university.dto;
 
 import com.uchk.university.entity.NotificationType;
-import com.uchk.university.entity.User;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -9,6 +8,11 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
+/**
+ * Notification as sent to its recipient. Lists are read straight into this class with a JPQL
+ * constructor expression (see NotificationRepository), so the recipient is neither loaded nor
+ * serialized.
+ */
 @Data
 @Builder
 @NoArgsConstructor
@@ -19,7 +23,5 @@ public class NotificationDto {  // Changed from NotificationDTO to NotificationD
     public NotificationType type;
     public boolean read;
     public LocalDateTime createdAt;
-    public User user;
-
 }
 
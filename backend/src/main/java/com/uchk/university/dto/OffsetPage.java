@@ -0,0 +1,20 @@
+package com.uchk.university.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a listing paginated by page number, with the total across all pages.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OffsetPage<T> {
+    private List<T> items;
+    private int page;
+    private int size;
+    private long totalElements;
+}
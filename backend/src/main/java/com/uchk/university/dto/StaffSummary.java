@@ -0,0 +1,23 @@
+package com.uchk.university.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Export view of a staff member: own columns plus the account email, without the user account
+ * or the formations.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor // Used by the constructor expression in StaffRepository
+public class StaffSummary {
+    private Long id;
+    private String staffId;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String position;
+    private String department;
+    private String contactInfo;
+}
@@ -0,0 +1,15 @@
+package com.uchk.university.dto;
+
+import lombok.Data;
+
+/**
+ * Student directory filters, all optional and combined with AND. {@code name} matches the start
+ * of the first or last name, ignoring case.
+ */
+@Data
+public class StudentFilter {
+    private Long formationId;
+    private String promo;
+    private Integer startYear;
+    private String name;
+}
@@ -0,0 +1,25 @@
+package com.uchk.university.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Directory view of a student: own columns plus the account email and the formation's id and
+ * name, without the user account or the formation entity.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor // Used by the criteria constructor selection (StudentDirectoryRepositoryImpl)
+public class StudentSummary {
+    private Long id;
+    private String studentId;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String promo;
+    private Integer startYear;
+    private Integer endYear;
+    private Long formationId;
+    private String formationName;
+}
@@ -0,0 +1,14 @@
+package com.uchk.university.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserTokenState {
+    private Long id;
+    private int tokenVersion;
+    private boolean active;
+}
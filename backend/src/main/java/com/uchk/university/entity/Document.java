@@ -7,7 +7,14 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "documents")
+@Table(name = "documents", indexes = {
+        @Index(name = "idx_documents_file_path", columnList = "file_path"),
+        // Keyset listing: one index per access path, each matching ORDER BY created_at DESC, id DESC
+        @Index(name = "idx_documents_created", columnList = "created_at, id"),
+        @Index(name = "idx_documents_visibility_created", columnList = "visibility_level, created_at, id"),
+        @Index(name = "idx_documents_creator_created", columnList = "creator_id, created_at, id"),
+        @Index(name = "idx_documents_processing", columnList = "processing_status, processing_updated_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -28,6 +35,29 @@ public class Document {
     private String filePath;
     private String fileName;
     
+    // Captured while the upload is streamed to disk
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+    
+    @Column(name = "file_size")
+    private Long fileSize;
+    
+    @Column(name = "content_type")
+    private String contentType;
+    
+    // Background processing state. Only written on insert and through DocumentRepository
+    // updates, so saving a stale copy of the document cannot undo the worker's progress.
+    // Rows that predate processing are READY.
+    @Enumerated(EnumType.STRING)
+    @Column(name = "processing_status", updatable = false, columnDefinition = "VARCHAR(20) DEFAULT 'READY'")
+    private DocumentProcessingStatus processingStatus = DocumentProcessingStatus.READY;
+    
+    @Column(name = "processing_updated_at", updatable = false)
+    private LocalDateTime processingUpdatedAt;
+    
+    @Column(name = "preview_path", updatable = false)
+    private String previewPath;
+    
     @ManyToOne
     @JoinColumn(name = "creator_id")
     private User creator;
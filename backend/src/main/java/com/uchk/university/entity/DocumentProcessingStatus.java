@@ -0,0 +1,12 @@
+package com.uchk.university.entity;
+
+/**
+ * Progress of the background work run after a document is saved (text extraction, preview,
+ * notifications).
+ */
+public enum DocumentProcessingStatus {
+    PENDING,
+    PROCESSING,
+    READY,
+    FAILED
+}
@@ -0,0 +1,40 @@
+package com.uchk.university.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Searchable text of a document: title and description copied from the document, plus the
+ * text extracted from its file. The tsvector column and its GIN index are maintained by the
+ * database (see schema-postgresql.sql) and are not mapped here.
+ */
+@Entity
+@Table(name = "document_search")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DocumentSearchEntry {
+    @Id
+    @Column(name = "document_id")
+    private Long documentId;
+
+    @Column(name = "title")
+    private String title;
+
+    @Column(name = "description", length = 1000)
+    private String description;
+
+    @Column(name = "content", columnDefinition = "TEXT")
+    private String content;
+
+    // File the content was extracted from, so a late extraction cannot overwrite a newer one
+    @Column(name = "content_source")
+    private String contentSource;
+
+    @Column(name = "indexed_at")
+    private LocalDateTime indexedAt;
+}
@@ -6,7 +6,10 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        // Per-user listing, matching ORDER BY created_at DESC, id DESC
+        @Index(name = "idx_notifications_user_created", columnList = "user_id, created_at, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -8,7 +8,15 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "students")
+@Table(name = "students", indexes = {
+        // Student directory: each filter column followed by the default order (last name, first
+        // name, id), so a filtered page is read from one index in order. The formation index also
+        // serves broadcasts and formation listings.
+        @Index(name = "idx_students_name", columnList = "last_name, first_name, id"),
+        @Index(name = "idx_students_formation_name", columnList = "formation_id, last_name, first_name, id"),
+        @Index(name = "idx_students_promo_name", columnList = "promo, last_name, first_name, id"),
+        @Index(name = "idx_students_start_year_name", columnList = "start_year, last_name, first_name, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
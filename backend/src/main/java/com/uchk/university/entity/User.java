@@ -34,6 +34,10 @@ public class User {
 
     private boolean active = true;
 
+    // Bumped whenever issued tokens must stop being honoured (role or password change)
+    @Column(name = "token_version", columnDefinition = "INTEGER DEFAULT 0")
+    private int tokenVersion = 0;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
 
@@ -0,0 +1,15 @@
+package com.uchk.university.exception;
+
+/**
+ * Password hashing is saturated: the request was not admitted to the hashing pool, or waited too
+ * long for it. Answered with 503 so clients retry later.
+ */
+public class PasswordHashingUnavailableException extends RuntimeException {
+    public PasswordHashingUnavailableException(String message) {
+        super(message);
+    }
+
+    public PasswordHashingUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
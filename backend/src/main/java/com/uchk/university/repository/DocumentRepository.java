@@ -1,11 +1,19 @@
 package com.uchk.university.repository;
 
 import com.uchk.university.entity.Document;
+import com.uchk.university.entity.DocumentProcessingStatus;
 import com.uchk.university.entity.DocumentType;
 import com.uchk.university.entity.User;
+import com.uchk.university.dto.DocumentSummary;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -16,4 +24,69 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
     List<Document> findByTitleContainingIgnoreCase(String title);
     List<Document> findByVisibilityLevelOrCreator(String visibilityLevel, User creator);  // This was also missing
     List<Document> findByTypeIn(List<DocumentType> types);
+    long countByFilePath(String filePath);  // Stored files can be shared by identical uploads
+
+    @Query("SELECT d FROM Document d WHERE NOT EXISTS "
+            + "(SELECT 1 FROM DocumentSearchEntry e WHERE e.documentId = d.id) ORDER BY d.id")
+    List<Document> findWithoutSearchEntry(Pageable pageable);
+
+    // Processing state transitions; the status columns are not updatable through entity saves
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Document d SET d.processingStatus = :to, d.processingUpdatedAt = :now "
+            + "WHERE d.id = :id AND d.processingStatus = :from")
+    int transitionProcessingStatus(@Param("id") Long id, @Param("from") DocumentProcessingStatus from,
+                                   @Param("to") DocumentProcessingStatus to, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Document d SET d.processingStatus = com.uchk.university.entity.DocumentProcessingStatus.PENDING, "
+            + "d.processingUpdatedAt = :now WHERE d.id = :id")
+    int markProcessingPending(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Only completes the run for the file it processed: a newer upload leaves the document PENDING
+    @Modifying
+    @Transactional
+    @Query("UPDATE Document d SET d.processingStatus = :status, d.previewPath = :previewPath, d.processingUpdatedAt = :now "
+            + "WHERE d.id = :id AND d.processingStatus = com.uchk.university.entity.DocumentProcessingStatus.PROCESSING "
+            + "AND (d.filePath = :filePath OR (d.filePath IS NULL AND :filePath IS NULL))")
+    int completeProcessing(@Param("id") Long id, @Param("filePath") String filePath,
+                           @Param("status") DocumentProcessingStatus status,
+                           @Param("previewPath") String previewPath, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Document d SET d.processingStatus = com.uchk.university.entity.DocumentProcessingStatus.PENDING, "
+            + "d.processingUpdatedAt = :now "
+            + "WHERE d.processingStatus = com.uchk.university.entity.DocumentProcessingStatus.PROCESSING "
+            + "AND d.processingUpdatedAt < :cutoff")
+    int resetStalledProcessing(@Param("cutoff") LocalDateTime cutoff, @Param("now") LocalDateTime now);
+
+    @Query("SELECT d.id FROM Document d WHERE d.processingStatus = :status AND d.processingUpdatedAt < :cutoff "
+            + "ORDER BY d.processingUpdatedAt")
+    List<Long> findIdsByProcessingStatusBefore(@Param("status") DocumentProcessingStatus status,
+                                               @Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    // Keyset pages ordered by (createdAt DESC, id DESC): rows strictly after the given cursor,
+    // limited by the Pageable size (page number must stay 0)
+    String SUMMARY_SELECT = "SELECT new com.uchk.university.dto.DocumentSummary(d.id, d.title, d.description, d.type, "
+            + "d.visibilityLevel, d.fileName, d.contentType, d.fileSize, d.createdAt, d.updatedAt, c.id, c.username) "
+            + "FROM Document d LEFT JOIN d.creator c ";
+    String AFTER_CURSOR = "(d.createdAt < :createdAt OR (d.createdAt = :createdAt AND d.id < :id)) ";
+    String KEYSET_ORDER = "ORDER BY d.createdAt DESC, d.id DESC";
+
+    @Query(SUMMARY_SELECT + "WHERE " + AFTER_CURSOR + KEYSET_ORDER)
+    List<DocumentSummary> findSummariesAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                             Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE d.visibilityLevel = :visibilityLevel AND " + AFTER_CURSOR + KEYSET_ORDER)
+    List<DocumentSummary> findSummariesByVisibilityAfter(@Param("visibilityLevel") String visibilityLevel,
+                                                         @Param("createdAt") LocalDateTime createdAt,
+                                                         @Param("id") Long id, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE d.creator.id = :creatorId AND " + AFTER_CURSOR + KEYSET_ORDER)
+    List<DocumentSummary> findSummariesByCreatorAfter(@Param("creatorId") Long creatorId,
+                                                      @Param("createdAt") LocalDateTime createdAt,
+                                                      @Param("id") Long id, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.uchk.university.repository;
+
+import com.uchk.university.entity.DocumentSearchEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DocumentSearchRepository extends JpaRepository<DocumentSearchEntry, Long> {
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE DocumentSearchEntry e SET e.title = :title, e.description = :description "
+            + "WHERE e.documentId = :documentId")
+    int updateMetadata(@Param("documentId") Long documentId, @Param("title") String title,
+                       @Param("description") String description);
+
+    /**
+     * Stores extracted text, unless the document has since been given another file.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE DocumentSearchEntry e SET e.content = :content, e.contentSource = :filePath, e.indexedAt = :indexedAt "
+            + "WHERE e.documentId = :documentId "
+            + "AND :filePath = (SELECT d.filePath FROM Document d WHERE d.id = :documentId)")
+    int updateContent(@Param("documentId") Long documentId, @Param("filePath") String filePath,
+                      @Param("content") String content, @Param("indexedAt") LocalDateTime indexedAt);
+
+    /**
+     * Ranked full-text matches visible to the user: all documents for admins, otherwise public
+     * documents and the user's own. The search_vector column and the text search configuration
+     * are defined in schema-postgresql.sql.
+     */
+    @Query(value = "SELECT d.id AS id, d.title AS title, d.description AS description, d.type AS type, "
+            + "d.visibility_level AS visibilityLevel, d.file_name AS fileName, d.content_type AS contentType, "
+            + "d.file_size AS fileSize, d.created_at AS createdAt, d.updated_at AS updatedAt, "
+            + "u.id AS creatorId, u.username AS creatorUsername, ts_rank_cd(s.search_vector, q) AS rank "
+            + "FROM document_search s "
+            + "JOIN documents d ON d.id = s.document_id "
+            + "LEFT JOIN users u ON u.id = d.creator_id, "
+            + "websearch_to_tsquery('french', :query) q "
+            + "WHERE s.search_vector @@ q "
+            + "AND (:admin = TRUE OR d.visibility_level = 'PUBLIC' OR d.creator_id = :userId) "
+            + "ORDER BY rank DESC, d.id DESC "
+            + "LIMIT :limit OFFSET :offset",
+            nativeQuery = true)
+    List<DocumentSearchRow> search(@Param("query") String query, @Param("admin") boolean admin,
+                                   @Param("userId") Long userId, @Param("limit") int limit,
+                                   @Param("offset") int offset);
+
+    interface DocumentSearchRow {
+        Long getId();
+        String getTitle();
+        String getDescription();
+        String getType();
+        String getVisibilityLevel();
+        String getFileName();
+        String getContentType();
+        Long getFileSize();
+        LocalDateTime getCreatedAt();
+        LocalDateTime getUpdatedAt();
+        Long getCreatorId();
+        String getCreatorUsername();
+        Double getRank();
+    }
+}
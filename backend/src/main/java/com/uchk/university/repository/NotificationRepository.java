@@ -1,5 +1,6 @@
 package com.uchk.university.repository;
 
+import com.uchk.university.dto.NotificationDto;
 import com.uchk.university.entity.Notification;
 import com.uchk.university.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -10,6 +11,8 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -32,21 +35,84 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     @Query("SELECT n FROM Notification n WHERE n.user.username = :username ORDER BY n.createdAt DESC")
     List<Notification> findByUserUsername(@Param("username") String username);
 
-    // Find recent notifications for a specific user
-    @Query("SELECT n FROM Notification n WHERE n.user.username = :username ORDER BY n.createdAt DESC")
-List<Notification> findRecentNotificationsByUsername(
-    @Param("username") String username,
-    Pageable pageable
-);
+    String KEYSET_ORDER = "ORDER BY n.createdAt DESC, n.id DESC";
+
+    // Only the columns the client needs; n.user.id is the foreign key column, so users is not joined
+    String DTO_SELECT = "SELECT new com.uchk.university.dto.NotificationDto("
+            + "n.id, n.message, n.type, n.read, n.createdAt) FROM Notification n ";
+
+    // Filtering on the user id (not a join on username) and comparing (createdAt, id) as a row
+    // value lets the database read idx_notifications_user_created backwards and stop at the limit.
+    @Query(DTO_SELECT + "WHERE n.user.id = :userId " + KEYSET_ORDER)
+    List<NotificationDto> findRecentByUserId(@Param("userId") Long userId, Pageable pageable);
 
+    @Query(DTO_SELECT + "WHERE n.user.id = :userId "
+            + "AND (n.createdAt, n.id) < (:createdAt, :id) " + KEYSET_ORDER)
+    List<NotificationDto> findByUserIdAfter(@Param("userId") Long userId,
+                                            @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") Long id, Pageable pageable);
 
     // Count unread notifications for a specific user
     @Query("SELECT COUNT(n) FROM Notification n WHERE n.user.username = :username AND n.read = false")
     int countUnreadByUsername(@Param("username") String username);
 
-    // Mark all notifications as read for a specific user
+    // Unread counts served from the in-memory counters are loaded and reconciled with these
+    @Query("SELECT COUNT(n) FROM Notification n WHERE n.user.id = :userId AND n.read = false")
+    long countUnreadByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT n.user.id AS userId, COUNT(n) AS unread FROM Notification n "
+            + "WHERE n.user.id IN :userIds AND n.read = false GROUP BY n.user.id")
+    List<UnreadCount> countUnreadByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    @Query("SELECT COUNT(n) FROM Notification n WHERE n.id IN :ids AND n.user.id = :userId AND n.read = false")
+    long countUnreadByIdsForUser(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+
+    // Mark all notifications as read for a specific user in one statement, touching only the
+    // unread rows (found through idx_notifications_user_unread)
+    @Modifying
+    @Transactional
+    @Query("UPDATE Notification n SET n.read = true WHERE n.user.id = :userId AND n.read = false")
+    int markAllAsReadByUserId(@Param("userId") Long userId);
+
+    // Batch operations are restricted to the user's own notifications
+    @Modifying
+    @Transactional
+    @Query("UPDATE Notification n SET n.read = true WHERE n.id IN :ids AND n.user.id = :userId AND n.read = false")
+    int markAsReadByIdsForUser(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Notification n WHERE n.id IN :ids AND n.user.id = :userId")
+    int deleteByIdsForUser(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+
+    // Retention (PostgreSQL): read notifications created in [from, cutoff), oldest first, in
+    // batches of :limit. Rows locked by another node running the same job are skipped.
+    // Unread notifications are never touched, so the unread counters stay valid.
     @Modifying
     @Transactional
-    @Query("UPDATE Notification n SET n.read = true WHERE n.user.username = :username")
-    void markAllAsReadByUsername(@Param("username") String username);
-}
\ No newline at end of file
+    @Query(value = "WITH moved AS (DELETE FROM notifications WHERE id IN ("
+            + "SELECT id FROM notifications WHERE is_read = true AND created_at >= :from AND created_at < :cutoff "
+            + "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED) "
+            + "RETURNING id, message, type, is_read, created_at, user_id) "
+            + "INSERT INTO notifications_archive (id, message, type, is_read, created_at, user_id, archived_at) "
+            + "SELECT id, message, type, is_read, created_at, user_id, :archivedAt FROM moved",
+            nativeQuery = true)
+    int archiveReadBetween(@Param("from") LocalDateTime from, @Param("cutoff") LocalDateTime cutoff,
+                           @Param("limit") int limit, @Param("archivedAt") LocalDateTime archivedAt);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM notifications WHERE id IN ("
+            + "SELECT id FROM notifications WHERE is_read = true AND created_at < :cutoff "
+            + "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED)",
+            nativeQuery = true)
+    int deleteReadBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    @Query("SELECT MIN(n.createdAt) FROM Notification n WHERE n.read = true AND n.createdAt < :cutoff")
+    LocalDateTime findOldestReadBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    interface UnreadCount {
+        Long getUserId();
+        long getUnread();
+    }
+}
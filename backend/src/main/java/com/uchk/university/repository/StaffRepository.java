@@ -2,11 +2,18 @@ package com.uchk.university.repository;
 
 import com.uchk.university.entity.Staff;
 import com.uchk.university.entity.Formation;
+import com.uchk.university.dto.StaffSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface StaffRepository extends JpaRepository<Staff, Long> {
@@ -16,4 +23,14 @@ public interface StaffRepository extends JpaRepository<Staff, Long> {
     
     // Updated method to use the new ManyToMany relationship
     List<Staff> findByFormations(Formation formation);
+
+    // Export: every staff member matching the optional filters, read through a forward-only cursor.
+    // Must be consumed and closed within a transaction.
+    @Query("SELECT new com.uchk.university.dto.StaffSummary(s.id, s.staffId, s.firstName, s.lastName, u.email, "
+            + "s.position, s.department, s.contactInfo) FROM Staff s JOIN s.user u "
+            + "WHERE (:department IS NULL OR s.department = :department) "
+            + "AND (:position IS NULL OR s.position = :position) "
+            + "ORDER BY s.lastName, s.firstName, s.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<StaffSummary> streamSummaries(@Param("department") String department, @Param("position") String position);
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.uchk.university.repository;
+
+import com.uchk.university.dto.StudentFilter;
+import com.uchk.university.dto.StudentSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Filtered, sorted student directory, built with the Criteria API (fragment of StudentRepository).
+ */
+public interface StudentDirectoryRepository {
+    Set<String> SORT_PROPERTIES = Set.of("studentId", "firstName", "lastName", "promo", "startYear", "endYear",
+            "formation");
+
+    /**
+     * @param pageable sorted on {@link #SORT_PROPERTIES} only
+     */
+    Page<StudentSummary> findSummaries(StudentFilter filter, Pageable pageable);
+
+    /**
+     * Every matching student, read through a forward-only cursor. Must be consumed and closed
+     * within a transaction, which keeps the cursor open.
+     *
+     * @param sort on {@link #SORT_PROPERTIES} only
+     */
+    Stream<StudentSummary> streamSummaries(StudentFilter filter, Sort sort);
+}
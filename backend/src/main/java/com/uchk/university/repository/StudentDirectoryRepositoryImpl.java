@@ -0,0 +1,125 @@
+package com.uchk.university.repository;
+
+import com.uchk.university.dto.StudentFilter;
+import com.uchk.university.dto.StudentSummary;
+import com.uchk.university.entity.Formation;
+import com.uchk.university.entity.Student;
+import com.uchk.university.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Each filter maps to an equality or prefix predicate on an indexed column, and every sort ends
+ * with the id so pages are stable. The indexes are declared on Student (filter column, then the
+ * default name order) and in schema-postgresql.sql (name prefixes).
+ */
+class StudentDirectoryRepositoryImpl implements StudentDirectoryRepository {
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<StudentSummary> findSummaries(StudentFilter filter, Pageable pageable) {
+        List<StudentSummary> content = entityManager.createQuery(summaryQuery(filter, pageable.getSort()))
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        // Counted only when the page alone does not tell the total
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> count(entityManager.getCriteriaBuilder(), filter));
+    }
+
+    @Override
+    public Stream<StudentSummary> streamSummaries(StudentFilter filter, Sort sort) {
+        // Projections are not managed entities, so the persistence context stays empty however
+        // many rows are read
+        return entityManager.createQuery(summaryQuery(filter, sort))
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .getResultStream();
+    }
+
+    private CriteriaQuery<StudentSummary> summaryQuery(StudentFilter filter, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<StudentSummary> query = cb.createQuery(StudentSummary.class);
+        Root<Student> student = query.from(Student.class);
+        Join<Student, User> user = student.join("user");
+        Join<Student, Formation> formation = student.join("currentFormation", JoinType.LEFT);
+        return query.select(cb.construct(StudentSummary.class,
+                        student.get("id"), student.get("studentId"), student.get("firstName"),
+                        student.get("lastName"), user.get("email"), student.get("promo"),
+                        student.get("startYear"), student.get("endYear"), formation.get("id"),
+                        formation.get("name")))
+                .where(predicates(cb, student, filter))
+                .orderBy(orders(cb, student, formation, sort));
+    }
+
+    private long count(CriteriaBuilder cb, StudentFilter filter) {
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Student> student = query.from(Student.class);
+        query.select(cb.count(student)).where(predicates(cb, student, filter));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static Predicate[] predicates(CriteriaBuilder cb, Root<Student> student, StudentFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getFormationId() != null) {
+            // Compares the foreign key, no join needed
+            predicates.add(cb.equal(student.get("currentFormation").get("id"), filter.getFormationId()));
+        }
+        if (StringUtils.hasText(filter.getPromo())) {
+            predicates.add(cb.equal(student.get("promo"), filter.getPromo().trim()));
+        }
+        if (filter.getStartYear() != null) {
+            predicates.add(cb.equal(student.get("startYear"), filter.getStartYear()));
+        }
+        if (StringUtils.hasText(filter.getName())) {
+            String pattern = escapeLike(filter.getName().trim().toLowerCase(Locale.ROOT)) + "%";
+            predicates.add(cb.or(
+                    cb.like(cb.lower(student.get("lastName")), pattern, '\\'),
+                    cb.like(cb.lower(student.get("firstName")), pattern, '\\')));
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+
+    private static List<Order> orders(CriteriaBuilder cb, Root<Student> student, From<?, Formation> formation,
+                                      Sort sort) {
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Path<?> path = switch (order.getProperty()) {
+                case "studentId", "firstName", "lastName", "promo", "startYear", "endYear" ->
+                        student.get(order.getProperty());
+                case "formation" -> formation.get("name");
+                default -> throw new IllegalArgumentException("Unsupported sort property: " + order.getProperty());
+            };
+            orders.add(order.isAscending() ? cb.asc(path) : cb.desc(path));
+        }
+        orders.add(cb.asc(student.get("id")));
+        return orders;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -4,15 +4,26 @@ import com.uchk.university.entity.Formation;
 import com.uchk.university.entity.Student;
 import com.uchk.university.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface StudentRepository extends JpaRepository<Student, Long> {
+public interface StudentRepository extends JpaRepository<Student, Long>, StudentDirectoryRepository {
     Optional<Student> findByStudentId(String studentId);
     Optional<Student> findByUser(User user);
     List<Student> findByCurrentFormation(Formation formation);
+
+    // Recipient user ids for formation-wide broadcasts, without loading the entities
+    @Query("SELECT s.user.id FROM Student s WHERE s.currentFormation.id = :formationId AND s.user.active = true "
+            + "ORDER BY s.user.id")
+    List<Long> findActiveUserIdsByFormationId(@Param("formationId") Long formationId);
     List<Student> findByPromo(String promo);
+
+    @Query("SELECT s.studentId FROM Student s WHERE s.studentId IN :studentIds")
+    List<String> findExistingStudentIds(@Param("studentIds") Collection<String> studentIds);
 }
\ No newline at end of file
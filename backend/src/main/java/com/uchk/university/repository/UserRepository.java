@@ -1,10 +1,14 @@
 package com.uchk.university.repository;
 
+import com.uchk.university.dto.UserTokenState;
 import com.uchk.university.entity.Role;
 import com.uchk.university.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +17,21 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
     List<User> findByRole(Role role);
+
+    // Recipient ids for role-wide broadcasts, without loading the entities
+    @Query("SELECT u.id FROM User u WHERE u.role = :role AND u.active = true ORDER BY u.id")
+    List<Long> findActiveIdsByRole(@Param("role") Role role);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    // Which of the given usernames / emails are taken, one query for a whole import chunk
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // Minimal per-user state used to check stateless tokens without loading full entities
+    @Query("SELECT new com.uchk.university.dto.UserTokenState(u.id, u.tokenVersion, u.active) FROM User u")
+    List<UserTokenState> findAllTokenStates();
 }
\ No newline at end of file
@@ -42,6 +42,11 @@ public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolve
             Object principal = authentication.getPrincipal();
             String username;
             
+            // Stateless principals already carry everything controllers need
+            if (principal instanceof AuthenticatedUser) {
+                return ((AuthenticatedUser) principal).toUser();
+            }
+            
             if (principal instanceof UserDetails) {
                 username = ((UserDetails) principal).getUsername();
             } else if (principal instanceof String) {
@@ -1,8 +1,11 @@
 package com.uchk.university.security;
 
+import com.uchk.university.config.CacheConfig;
 import com.uchk.university.entity.User;
 import com.uchk.university.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -15,9 +18,38 @@ import java.util.Collections;
 @RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
     private final UserRepository userRepository;
+    private final CacheManager cacheManager;
 
+    /**
+     * Used by the login provider: always reads the database, so a password, role or activation
+     * change is honoured at the next login on every node.
+     */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return loadFromDatabase(username);
+    }
+
+    /**
+     * Used by the JWT filter, which only needs the account state and authorities. Entries are
+     * evicted on update on this node; other nodes may serve them until the cache TTL expires.
+     */
+    public UserDetails loadCachedUserByUsername(String username) throws UsernameNotFoundException {
+        Cache cache = cacheManager.getCache(CacheConfig.USER_DETAILS_CACHE);
+        UserDetails cached = cache != null ? cache.get(username, UserDetails.class) : null;
+        if (cached == null) {
+            // Unknown usernames throw and are therefore never cached. The password hash is not
+            // needed to authenticate a token and is left out of the cache
+            cached = org.springframework.security.core.userdetails.User.withUserDetails(loadFromDatabase(username))
+                    .password("")
+                    .build();
+            if (cache != null) {
+                cache.put(username, cached);
+            }
+        }
+        return cached;
+    }
+
+    private UserDetails loadFromDatabase(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
 
@@ -31,4 +63,4 @@ public class CustomUserDetailsService implements UserDetailsService {
                 Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))
         );
     }
-}
\ No newline at end of file
+}
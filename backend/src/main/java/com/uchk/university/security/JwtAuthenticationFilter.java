@@ -1,6 +1,8 @@
 package com.uchk.university.security;
 
+import com.uchk.university.entity.Role;
 import com.uchk.university.service.UserService;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
@@ -10,10 +12,10 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -24,9 +26,16 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtTokenUtil jwtTokenUtil;
-    private final UserDetailsService userDetailsService;
+    private final CustomUserDetailsService userDetailsService;
     private final UserService userService;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+    private static final String STREAM_PATH = "/api/notifications/stream";
+    private static final String ACCESS_TOKEN_PARAMETER = "access_token";
+
+    // When enabled, tokens carrying user id/role/version claims are trusted without a database lookup
+    @Value("${jwt.stateless-principal.enabled:false}")
+    private boolean statelessPrincipal;
 
     @Override
     protected void doFilterInternal(
@@ -42,25 +51,47 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Extract Authorization header
         String authHeader = request.getHeader("Authorization");
         
-        // Continue filter chain if no Authorization header or not a Bearer token
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        String token;
+        boolean fromQuery = false;
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            token = authHeader.substring(7);
+        } else if (STREAM_PATH.equals(request.getServletPath())
+                && request.getParameter(ACCESS_TOKEN_PARAMETER) != null) {
+            // EventSource cannot send headers; a short-lived stream ticket is accepted in the
+            // query string of the stream path only
+            token = request.getParameter(ACCESS_TOKEN_PARAMETER);
+            fromQuery = true;
+        } else {
+            // Continue filter chain if no Authorization header or not a Bearer token
             filterChain.doFilter(request, response);
             return;
         }
         
-        String token = authHeader.substring(7);
-        
         try {
-            // Extract username from token
-            String username = jwtTokenUtil.getUsernameFromToken(token);
+            // Parse and verify the token once; the claims are cached until the token expires
+            Claims claims = jwtTokenUtil.getAllClaimsFromToken(token);
+            String username = claims.getSubject();
+
+            // Access tokens never go in a URL, and stream tickets are good for nothing else
+            if (jwtTokenUtil.isStreamTicket(claims) != fromQuery) {
+                logger.warn("Token presented where it is not accepted: {}", request.getServletPath());
+                username = null;
+            }
             
             // Check if authentication is not already set and username exists
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                // Load user details
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                // Build the principal from the claims when possible, otherwise load user details
+                UserDetails userDetails;
+                if (statelessPrincipal && claims.get(JwtTokenUtil.CLAIM_USER_ID) != null) {
+                    userDetails = principalFromClaims(claims);
+                } else {
+                    userDetails = userDetailsService.loadCachedUserByUsername(username);
+                }
                 
                 // Validate token
-                if (jwtTokenUtil.validateToken(token, userDetails)) {
+                if (userDetails == null) {
+                    logger.warn("Revoked token presented for user: {}", username);
+                } else if (jwtTokenUtil.validateToken(claims, userDetails)) {
                     // Create authentication token
                     UsernamePasswordAuthenticationToken authToken = 
                         new UsernamePasswordAuthenticationToken(
@@ -99,4 +130,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Rebuilds the principal from the token claims, or returns null if the token version is
+     * no longer current (user deactivated, deleted, or role/password changed).
+     */
+    private UserDetails principalFromClaims(Claims claims) {
+        long userId = ((Number) claims.get(JwtTokenUtil.CLAIM_USER_ID)).longValue();
+        Number version = claims.get(JwtTokenUtil.CLAIM_TOKEN_VERSION, Number.class);
+        if (version == null
+                || !tokenRevocationRegistry.isTokenCurrent(userId, version.intValue(), claims.getIssuedAt())) {
+            return null;
+        }
+        Role role = Role.valueOf(claims.get(JwtTokenUtil.CLAIM_ROLE, String.class));
+        return new AuthenticatedUser(userId, claims.getSubject(), role);
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.uchk.university.security;
 
+import com.uchk.university.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.slf4j.Logger;
@@ -22,9 +23,21 @@ public class JwtTokenUtil {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenUtil.class);
 
+    // Claims used to rebuild the principal without a database lookup (stateless principal mode)
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+
+    // Stream tickets open the notification stream only, and are the only tokens accepted in its URL
+    public static final String CLAIM_SCOPE = "scope";
+    public static final String STREAM_TICKET_SCOPE = "notification-stream";
+
     private final SecretKey key;
+    private final JwtParser parser;
+    private final JwtClaimsCache claimsCache;
     private final long jwtExpiration;
     private final long jwtRefreshExpiration;
+    private final long streamTicketExpiration;
     
     // Added nonce prefix to prevent JWT token reuse across different systems
     private final String noncePrefix;
@@ -33,7 +46,9 @@ public class JwtTokenUtil {
             @Value("${jwt.secret}") String secret,
             @Value("${jwt.expiration:86400000}") long jwtExpiration, // Changed to 24 hours
             @Value("${jwt.refresh-expiration:604800000}") long jwtRefreshExpiration, // 7 days
-            @Value("${jwt.nonce-prefix:UCHK}") String noncePrefix) {
+            @Value("${jwt.nonce-prefix:UCHK}") String noncePrefix,
+            @Value("${jwt.stream-ticket-expiration:60000}") long streamTicketExpiration,
+            JwtClaimsCache claimsCache) {
         // Generate a strong key from the secret using HMAC-SHA-256
         // Ensure the secret key is at least 256 bits (32 bytes) for HS256
         byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
@@ -46,8 +61,15 @@ public class JwtTokenUtil {
             this.key = Keys.hmacShaKeyFor(secretBytes);
         }
         
+        // The parser is immutable and thread-safe, so build it once
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+        this.claimsCache = claimsCache;
+        
         this.jwtExpiration = jwtExpiration;
         this.jwtRefreshExpiration = jwtRefreshExpiration;
+        this.streamTicketExpiration = streamTicketExpiration;
         
         this.noncePrefix = noncePrefix;
     }
@@ -65,23 +87,27 @@ public class JwtTokenUtil {
         return claimsResolver.apply(claims);
     }
 
-    private Claims getAllClaimsFromToken(String token) {
-        JwtParser parser = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build();
-        
-        return parser.parseClaimsJws(token).getBody();
+    /**
+     * Parses and verifies the token once, then serves its claims from {@link JwtClaimsCache}
+     * until the token expires.
+     */
+    public Claims getAllClaimsFromToken(String token) {
+        return claimsCache.get(token, t -> parser.parseClaimsJws(t).getBody());
     }
 
     private Boolean isTokenExpired(String token) {
         try {
-            final Date expiration = getExpirationDateFromToken(token);
-            return expiration.before(new Date());
+            return isExpired(getAllClaimsFromToken(token));
         } catch (ExpiredJwtException e) {
             return true;
         }
     }
 
+    private boolean isExpired(Claims claims) {
+        final Date expiration = claims.getExpiration();
+        return expiration == null || expiration.before(new Date());
+    }
+
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
         // Add user roles to the claims, but avoid putting too much info in the token
@@ -89,12 +115,43 @@ public class JwtTokenUtil {
         return doGenerateToken(claims, userDetails.getUsername(), jwtExpiration);
     }
     
+    /**
+     * Generates an access token that also embeds the user id, role and token version,
+     * so the principal can be rebuilt from the claims alone.
+     */
+    public String generateToken(UserDetails userDetails, User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("authorities", userDetails.getAuthorities());
+        claims.put(CLAIM_USER_ID, user.getId());
+        claims.put(CLAIM_ROLE, user.getRole().name());
+        claims.put(CLAIM_TOKEN_VERSION, user.getTokenVersion());
+        return doGenerateToken(claims, userDetails.getUsername(), jwtExpiration);
+    }
+    
     public String generateRefreshToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("refresh", true);
         return doGenerateToken(claims, userDetails.getUsername(), jwtRefreshExpiration);
     }
 
+    /**
+     * Generates a ticket that opens the user's notification stream and nothing else. It carries
+     * the same user claims as an access token but expires within about a minute, since it
+     * travels in a URL (EventSource cannot send headers) and may end up in access logs.
+     */
+    public String generateStreamTicket(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_SCOPE, STREAM_TICKET_SCOPE);
+        claims.put(CLAIM_USER_ID, user.getId());
+        claims.put(CLAIM_ROLE, user.getRole().name());
+        claims.put(CLAIM_TOKEN_VERSION, user.getTokenVersion());
+        return doGenerateToken(claims, user.getUsername(), streamTicketExpiration);
+    }
+
+    public boolean isStreamTicket(Claims claims) {
+        return STREAM_TICKET_SCOPE.equals(claims.get(CLAIM_SCOPE));
+    }
+
     private String doGenerateToken(Map<String, Object> claims, String subject, long expiration) {
         long currentTimeMillis = System.currentTimeMillis();
         // Add a few seconds to not-before time to account for clock skew
@@ -125,17 +182,22 @@ public class JwtTokenUtil {
         }
     }
 
+    /**
+     * Validates already verified claims against the loaded user, avoiding any re-parsing of the token.
+     */
+    public boolean validateToken(Claims claims, UserDetails userDetails) {
+        return claims.getSubject() != null
+                && claims.getSubject().equals(userDetails.getUsername())
+                && !isExpired(claims);
+    }
+
     public long getTokenExpirationTime() {
         return jwtExpiration;
     }
 
     public Boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token);
-            return !isTokenExpired(token);
+            return !isExpired(getAllClaimsFromToken(token));
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
@@ -0,0 +1,130 @@
+package com.uchk.university.security;
+
+import com.uchk.university.dto.UserTokenState;
+import com.uchk.university.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of every user's token version, used to honour stateless tokens without
+ * a database lookup per request.
+ * The snapshot is held as two parallel sorted arrays (user id / version) and refreshed
+ * periodically; changes made on this node are applied immediately through a small overlay.
+ */
+@Component
+public class TokenRevocationRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationRegistry.class);
+
+    // Version recorded for deactivated or deleted users: no token matches it
+    private static final int REVOKED = -1;
+
+    private final UserRepository userRepository;
+    private final boolean enabled;
+
+    private volatile Snapshot snapshot;
+    private final Map<Long, OverlayEntry> overlay = new ConcurrentHashMap<>();
+
+    public TokenRevocationRegistry(
+            UserRepository userRepository,
+            @Value("${jwt.stateless-principal.enabled:false}") boolean enabled) {
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns true if a token carrying the given version is still valid for the user.
+     * Users absent from the snapshot are only accepted for tokens issued after it was taken
+     * (i.e. accounts created since the last refresh); otherwise they were deleted.
+     */
+    public boolean isTokenCurrent(long userId, int tokenVersion, Date issuedAt) {
+        OverlayEntry changed = overlay.get(userId);
+        if (changed != null) {
+            return changed.version != REVOKED && changed.version == tokenVersion;
+        }
+
+        Snapshot current = snapshot();
+        int index = Arrays.binarySearch(current.userIds, userId);
+        if (index < 0) {
+            return issuedAt != null && issuedAt.getTime() > current.loadedAt;
+        }
+        int version = current.versions[index];
+        return version != REVOKED && version == tokenVersion;
+    }
+
+    public void markChanged(long userId, int newVersion) {
+        overlay.put(userId, new OverlayEntry(newVersion, System.currentTimeMillis()));
+    }
+
+    public void markRevoked(long userId) {
+        markChanged(userId, REVOKED);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.stateless-principal.refresh-interval:30000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
+        List<UserTokenState> states = new ArrayList<>(userRepository.findAllTokenStates());
+        states.sort(Comparator.comparing(UserTokenState::getId));
+
+        long[] userIds = new long[states.size()];
+        int[] versions = new int[states.size()];
+        for (int i = 0; i < states.size(); i++) {
+            UserTokenState state = states.get(i);
+            userIds[i] = state.getId();
+            versions[i] = state.isActive() ? state.getTokenVersion() : REVOKED;
+        }
+        snapshot = new Snapshot(userIds, versions, startedAt);
+
+        // Local changes older than this refresh are now part of the snapshot
+        overlay.values().removeIf(entry -> entry.changedAt < startedAt);
+        logger.debug("Token revocation snapshot refreshed: {} users", userIds.length);
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private static final class Snapshot {
+        private final long[] userIds;
+        private final int[] versions;
+        private final long loadedAt;
+
+        private Snapshot(long[] userIds, int[] versions, long loadedAt) {
+            this.userIds = userIds;
+            this.versions = versions;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private static final class OverlayEntry {
+        private final int version;
+        private final long changedAt;
+
+        private OverlayEntry(int version, long changedAt) {
+            this.version = version;
+            this.changedAt = changedAt;
+        }
+    }
+}
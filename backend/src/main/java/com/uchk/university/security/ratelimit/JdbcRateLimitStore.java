@@ -0,0 +1,46 @@
+package com.uchk.university.security.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Counters in the rate_limit_counters table (PostgreSQL, see schema-postgresql.sql), so a limit
+ * holds across all nodes. Each hit is one upsert that also reads the previous window. Rows are
+ * kept for two windows, then removed by a periodic cleanup.
+ */
+@Slf4j
+public class JdbcRateLimitStore implements RateLimitStore {
+    private static final String HIT_SQL =
+            "WITH hit AS ("
+                    + "INSERT INTO rate_limit_counters (limit_key, window_start, hits, expires_at) VALUES (?, ?, 1, ?) "
+                    + "ON CONFLICT (limit_key, window_start) DO UPDATE SET hits = rate_limit_counters.hits + 1 "
+                    + "RETURNING hits) "
+                    + "SELECT (SELECT hits FROM hit) AS current_hits, "
+                    + "COALESCE((SELECT hits FROM rate_limit_counters WHERE limit_key = ? AND window_start = ?), 0) "
+                    + "AS previous_hits";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcRateLimitStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public long hit(String scope, String key, long windowStart, long windowMillis) {
+        String limitKey = scope + ":" + key;
+        Long hits = jdbcTemplate.queryForObject(HIT_SQL,
+                (resultSet, row) -> RateLimitStore.pack(resultSet.getLong("previous_hits"), resultSet.getLong("current_hits")),
+                limitKey, windowStart, windowStart + 2 * windowMillis, limitKey, windowStart - windowMillis);
+        return hits != null ? hits : RateLimitStore.pack(0, 1);
+    }
+
+    @Scheduled(fixedDelayString = "${security.rate-limit.cleanup-interval:300000}")
+    public void removeExpired() {
+        int removed = jdbcTemplate.update("DELETE FROM rate_limit_counters WHERE expires_at < ?",
+                System.currentTimeMillis());
+        if (removed > 0) {
+            log.debug("Removed {} expired rate limit counters", removed);
+        }
+    }
+}
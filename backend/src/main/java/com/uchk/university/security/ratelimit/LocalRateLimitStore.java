@@ -0,0 +1,60 @@
+package com.uchk.university.security.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters held in memory on this node. At most {@code maxKeys} keys are tracked per scope: the
+ * cache admits and evicts by an approximate frequency sketch (W-TinyLFU), so keys hit repeatedly,
+ * such as an address replaying credentials, keep their counters while a flood of one-off keys
+ * cannot grow memory.
+ * Each counter is a single AtomicLong holding the window number and the hits of that window and
+ * of the previous one, updated by compare-and-set: a hit on a known key takes no lock and
+ * allocates nothing.
+ */
+public class LocalRateLimitStore implements RateLimitStore {
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long WINDOW_MASK = (1L << (64 - 2 * COUNT_BITS)) - 1;
+
+    private final long maxKeys;
+    private final ConcurrentMap<String, Cache<String, AtomicLong>> scopes = new ConcurrentHashMap<>();
+
+    public LocalRateLimitStore(long maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    @Override
+    public long hit(String scope, String key, long windowStart, long windowMillis) {
+        Cache<String, AtomicLong> counters = scopes.get(scope);
+        if (counters == null) {
+            counters = scopes.computeIfAbsent(scope, s -> Caffeine.newBuilder().maximumSize(maxKeys).build());
+        }
+        AtomicLong counter = counters.get(key, k -> new AtomicLong());
+        long window = (windowStart / windowMillis) & WINDOW_MASK;
+        while (true) {
+            long state = counter.get();
+            long stateWindow = state >>> (2 * COUNT_BITS);
+            long previous = (state >>> COUNT_BITS) & COUNT_MASK;
+            long current = state & COUNT_MASK;
+            if (stateWindow == window) {
+                current = Math.min(current + 1, COUNT_MASK);
+            } else if (stateWindow == ((window - 1) & WINDOW_MASK)) {
+                previous = current;
+                current = 1;
+            } else {
+                // Idle for more than a window
+                previous = 0;
+                current = 1;
+            }
+            long next = window << (2 * COUNT_BITS) | previous << COUNT_BITS | current;
+            if (next == state || counter.compareAndSet(state, next)) {
+                return RateLimitStore.pack(previous, current);
+            }
+        }
+    }
+}
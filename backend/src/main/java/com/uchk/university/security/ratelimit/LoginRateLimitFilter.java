@@ -0,0 +1,191 @@
+package com.uchk.university.security.ratelimit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Limits login attempts per client address, then per client address and username, before any
+ * authentication work (user lookup, password hashing) is done. The username is read from the
+ * JSON body, which is then replayed to the controller.
+ * The client address is the connection's remote address; behind a reverse proxy, enable
+ * server.forward-headers-strategy so it reflects the forwarded client rather than trusting
+ * a header any client can set.
+ */
+@Component
+@Slf4j
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+    private static final String LOGIN_PATH = "/api/auth/login";
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+
+    private final SlidingWindowRateLimiter loginAddressRateLimiter;
+    private final SlidingWindowRateLimiter loginRateLimiter;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Counter addressRejected;
+    private final Counter rejected;
+
+    public LoginRateLimitFilter(@Qualifier("loginAddressRateLimiter") SlidingWindowRateLimiter loginAddressRateLimiter,
+                                @Qualifier("loginRateLimiter") SlidingWindowRateLimiter loginRateLimiter,
+                                ObjectMapper objectMapper,
+                                RateLimitProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.loginAddressRateLimiter = loginAddressRateLimiter;
+        this.loginRateLimiter = loginRateLimiter;
+        this.objectMapper = objectMapper;
+        this.enabled = properties.isEnabled();
+        this.addressRejected = rejectedCounter(loginAddressRateLimiter, meterRegistry);
+        this.rejected = rejectedCounter(loginRateLimiter, meterRegistry);
+    }
+
+    private static Counter rejectedCounter(SlidingWindowRateLimiter limiter, MeterRegistry meterRegistry) {
+        return Counter.builder("security.rate-limit.rejected")
+                .description("Requests rejected by a rate limiter")
+                .tag("limiter", limiter.getName())
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"POST".equals(request.getMethod()) || !LOGIN_PATH.equals(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+        if (body.length > MAX_BODY_BYTES) {
+            response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value());
+            return;
+        }
+
+        // Checked first: an address trying many usernames is stopped whatever the usernames
+        String clientIp = request.getRemoteAddr();
+        long retryAfter = loginAddressRateLimiter.tryAcquire(clientIp);
+        if (retryAfter > 0) {
+            addressRejected.increment();
+            reject(response, clientIp, retryAfter);
+            return;
+        }
+
+        // Keyed on a hash of the username, as before, so usernames are not kept in the counters
+        String username = readUsername(body);
+        String key = clientIp + ":" + Integer.toHexString(username.toLowerCase(Locale.ROOT).hashCode());
+
+        retryAfter = loginRateLimiter.tryAcquire(key);
+        if (retryAfter > 0) {
+            rejected.increment();
+            reject(response, clientIp, retryAfter);
+            return;
+        }
+        filterChain.doFilter(new CachedBodyRequest(request, body), response);
+    }
+
+    private void reject(HttpServletResponse response, String clientIp, long retryAfter) throws IOException {
+        // Don't log the actual username to prevent log-based username enumeration
+        log.warn("Blocked login attempt due to rate limiting. IP: {}", clientIp);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of(
+                "error", "too_many_attempts",
+                "message", "Too many login attempts. Please try again later."));
+    }
+
+    private String readUsername(byte[] body) {
+        try {
+            JsonNode username = objectMapper.readTree(body).path("username");
+            return username.isTextual() ? username.asText() : "";
+        } catch (IOException e) {
+            // Malformed bodies are still counted (against the address) and rejected by the controller
+            return "";
+        }
+    }
+
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // The whole body is already in memory: readable at once, then complete
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.uchk.university.security.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.convert.DurationUnit;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * security.rate-limit.*: the login limits ({@code limit} attempts per address and username in
+ * {@code refresh-period}, {@code login-address-budget} per address alone), the store behind them,
+ * and the request budgets of {@link RequestThrottleFilter}.
+ * Periods without a unit are in seconds.
+ */
+@Data
+@ConfigurationProperties(prefix = "security.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    private long limit = 10;
+    @DurationUnit(ChronoUnit.SECONDS)
+    private Duration refreshPeriod = Duration.ofSeconds(60);
+    // Login attempts per client address, whatever the usernames tried
+    private Budget loginAddressBudget = new Budget(100, Duration.ofSeconds(60));
+    // local or jdbc
+    private String store = "local";
+    private long maxKeys = 100_000;
+    // Budget of requests matching none of the routes
+    private Budget defaultBudget = new Budget(600, Duration.ofSeconds(60));
+    private List<Route> routes = new ArrayList<>();
+
+    @Data
+    public static class Budget {
+        private long limit;
+        @DurationUnit(ChronoUnit.SECONDS)
+        private Duration period = Duration.ofSeconds(60);
+
+        public Budget() {
+        }
+
+        public Budget(long limit, Duration period) {
+            this.limit = limit;
+            this.period = period;
+        }
+    }
+
+    /**
+     * A budget for the requests whose path is {@code path} or below it, with the given method
+     * (any method if none).
+     */
+    @Data
+    public static class Route {
+        private String method;
+        private String path;
+        private long limit;
+        @DurationUnit(ChronoUnit.SECONDS)
+        private Duration period = Duration.ofSeconds(60);
+    }
+}
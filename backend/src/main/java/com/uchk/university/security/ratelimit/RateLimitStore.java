@@ -0,0 +1,32 @@
+package com.uchk.university.security.ratelimit;
+
+/**
+ * Hit counters for fixed windows, from which {@link SlidingWindowRateLimiter} estimates a
+ * sliding window. Implementations keep per-node counters ({@link LocalRateLimitStore}) or share
+ * them between nodes ({@link JdbcRateLimitStore}). Counters are separate per scope (one per
+ * limiter).
+ */
+public interface RateLimitStore {
+    long MAX_HITS = Integer.MAX_VALUE;
+
+    /**
+     * Records one hit for the key in the window starting at {@code windowStart} (epoch millis).
+     *
+     * @return the hits recorded in that window, this one included, and in the window before it,
+     *         packed into one long (see {@link #previous} and {@link #current}) so that checking
+     *         a limit allocates nothing
+     */
+    long hit(String scope, String key, long windowStart, long windowMillis);
+
+    static long pack(long previous, long current) {
+        return Math.min(previous, MAX_HITS) << 32 | Math.min(current, MAX_HITS);
+    }
+
+    static long previous(long hits) {
+        return hits >>> 32;
+    }
+
+    static long current(long hits) {
+        return hits & 0xFFFFFFFFL;
+    }
+}
@@ -0,0 +1,122 @@
+package com.uchk.university.security.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Per-client request budgets, so a single client cannot saturate the database or the disk.
+ * Each request counts against the first route (method and path prefix) it matches, or against
+ * the default budget; clients are authenticated users, or the remote address for anonymous
+ * requests. Runs after authentication in the security chain and before any controller work,
+ * so an over-budget upload is rejected before its body is read.
+ * Budgets are per node and always counted in memory: consulting the database on every request
+ * would load the very resource being protected.
+ */
+@Component
+@Slf4j
+public class RequestThrottleFilter extends OncePerRequestFilter {
+    private static final byte[] REJECTED_BODY =
+            "{\"error\":\"too_many_requests\",\"message\":\"Too many requests. Please try again later.\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    private final boolean enabled;
+    private final List<RouteLimiter> routes;
+    private final RouteLimiter defaultRoute;
+
+    public RequestThrottleFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        LocalRateLimitStore store = new LocalRateLimitStore(properties.getMaxKeys());
+        this.enabled = properties.isEnabled();
+        this.routes = properties.getRoutes().stream()
+                .map(route -> new RouteLimiter(route.getMethod(), stripTrailingSlash(route.getPath()),
+                        route.getLimit(), route.getPeriod(), store, meterRegistry))
+                .toList();
+        this.defaultRoute = new RouteLimiter(null, null, properties.getDefaultBudget().getLimit(),
+                properties.getDefaultBudget().getPeriod(), store, meterRegistry);
+        properties.getRoutes().forEach(route -> log.debug("Request budget for {} {}: {} per {}",
+                route.getMethod() != null ? route.getMethod() : "*", route.getPath(), route.getLimit(), route.getPeriod()));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RouteLimiter route = match(request.getMethod(), request.getServletPath());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        long retryAfter = authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)
+                ? route.userLimiter.tryAcquire(authentication.getName())
+                : route.addressLimiter.tryAcquire(request.getRemoteAddr());
+        if (retryAfter == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        route.rejected.increment();
+        log.debug("Throttled {} {} from {}", request.getMethod(), request.getServletPath(), request.getRemoteAddr());
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(REJECTED_BODY);
+    }
+
+    private RouteLimiter match(String method, String path) {
+        // Plain string comparisons: matching a route allocates nothing
+        for (RouteLimiter route : routes) {
+            if ((route.method == null || route.method.equalsIgnoreCase(method))
+                    && path.startsWith(route.path)
+                    && (path.length() == route.path.length() || path.charAt(route.path.length()) == '/')) {
+                return route;
+            }
+        }
+        return defaultRoute;
+    }
+
+    private static String stripTrailingSlash(String path) {
+        return path.length() > 1 && path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+
+    private static final class RouteLimiter {
+        private final String method;
+        private final String path;
+        // Users and addresses are counted in separate scopes, so a username never shares an address's counter
+        private final SlidingWindowRateLimiter userLimiter;
+        private final SlidingWindowRateLimiter addressLimiter;
+        private final Counter rejected;
+
+        private RouteLimiter(String method, String path, long limit, Duration period,
+                             RateLimitStore store, MeterRegistry meterRegistry) {
+            this.method = method;
+            this.path = path;
+            String name = path == null ? "default" : (method == null ? "" : method.toUpperCase(Locale.ROOT) + " ") + path;
+            this.userLimiter = new SlidingWindowRateLimiter(store, name + " user", limit, period);
+            this.addressLimiter = new SlidingWindowRateLimiter(store, name + " address", limit, period);
+            this.rejected = Counter.builder("security.rate-limit.rejected")
+                    .description("Requests rejected by a rate limiter")
+                    .tag("limiter", name)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.uchk.university.security.ratelimit;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Allows at most {@code limit} hits per key in any {@code period}, estimated as a sliding window:
+ * the hits of the current fixed window plus those of the previous window weighted by the share
+ * of it still inside the period. Rejected hits count too, so a client that keeps retrying stays
+ * limited.
+ */
+public class SlidingWindowRateLimiter {
+    private final RateLimitStore store;
+    private final String name;
+    private final long limit;
+    private final long windowMillis;
+    private final LongSupplier clock;
+
+    public SlidingWindowRateLimiter(RateLimitStore store, String name, long limit, Duration period) {
+        this(store, name, limit, period, System::currentTimeMillis);
+    }
+
+    SlidingWindowRateLimiter(RateLimitStore store, String name, long limit, Duration period, LongSupplier clock) {
+        this.store = store;
+        this.name = name;
+        this.limit = limit;
+        this.windowMillis = period.toMillis();
+        this.clock = clock;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records a hit for the key.
+     *
+     * @return 0 if the hit is allowed, otherwise the number of seconds to wait before retrying
+     */
+    public long tryAcquire(String key) {
+        long now = clock.getAsLong();
+        long windowStart = now - now % windowMillis;
+        long elapsed = now - windowStart;
+        long hits = store.hit(name, key, windowStart, windowMillis);
+        long previous = RateLimitStore.previous(hits);
+        long current = RateLimitStore.current(hits);
+
+        double previousWeight = 1 - (double) elapsed / windowMillis;
+        if (previous * previousWeight + current <= limit) {
+            return 0;
+        }
+        long waitMillis;
+        if (current >= limit) {
+            waitMillis = windowMillis - elapsed;
+        } else {
+            // Until the previous window's weight has dropped enough
+            double allowedWeight = (double) (limit - current) / previous;
+            waitMillis = (long) Math.ceil(windowMillis * (1 - allowedWeight)) - elapsed;
+        }
+        return Math.max(1, (waitMillis + 999) / 1000);
+    }
+}
@@ -3,12 +3,14 @@ package com.uchk.university.service;
 import com.uchk.university.dto.LoginRequest;
 import com.uchk.university.dto.LoginResponse;
 import com.uchk.university.entity.User;
+import com.uchk.university.exception.PasswordHashingUnavailableException;
 import com.uchk.university.repository.UserRepository;
 import com.uchk.university.security.JwtTokenUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -29,12 +31,22 @@ public class AuthService {
             );
 
             UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            String token = jwtTokenUtil.generateToken(userDetails);
             
             User user = userRepository.findByUsername(userDetails.getUsername())
                     .orElseThrow(() -> new RuntimeException("User not found"));
             
+            // Embed id, role and token version so the principal can be rebuilt from the token
+            String token = jwtTokenUtil.generateToken(userDetails, user);
+            
             return new LoginResponse(token, user.getUsername(), user.getEmail(), user.getRole());
+        } catch (InternalAuthenticationServiceException e) {
+            // The provider wraps failures raised while looking up the user, including the
+            // password check it runs for unknown usernames
+            if (e.getCause() instanceof PasswordHashingUnavailableException unavailable) {
+                throw unavailable;
+            }
+            log.error("Login error: {}", e.getMessage());
+            throw e;
         } catch (BadCredentialsException e) {
             // Log the specific authentication error
             log.error("Authentication failed: Bad credentials for user {}", loginRequest.getUsername());
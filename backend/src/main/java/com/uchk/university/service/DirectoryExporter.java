@@ -0,0 +1,175 @@
+package com.uchk.university.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Builds file exports (CSV or XLSX) written to the response as rows are read, so memory does not
+ * grow with the number of rows. Database rows come from a forward-only cursor held open by a
+ * read-only transaction for the length of the export.
+ * Exports are written from the MVC async executor (see WebMvcConfig), at most
+ * {@code export.concurrency} at once since each holds a database connection; beyond that they are
+ * rejected.
+ */
+@Component
+@Slf4j
+public class DirectoryExporter {
+    public enum Format {
+        CSV("text/csv;charset=UTF-8", "csv"),
+        XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public static Format of(String name) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(name == null ? "" : name.trim())) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + name + " (csv or xlsx)");
+        }
+    }
+
+    @lombok.Value
+    public static class Column<T> {
+        String header;
+        Function<T, ?> value;
+    }
+
+    @lombok.Value
+    public static class Export {
+        String fileName;
+        Format format;
+        StreamingResponseBody body;
+    }
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int concurrency;
+    private final Semaphore permits;
+    private final MeterRegistry meterRegistry;
+
+    public DirectoryExporter(EntityManagerFactory entityManagerFactory,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${export.concurrency:4}") int concurrency,
+                             MeterRegistry meterRegistry) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        this.concurrency = concurrency;
+        this.permits = new Semaphore(concurrency);
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("exports.active", this, exporter -> exporter.concurrency - exporter.permits.availablePermits())
+                .description("Exports being written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Export of rows read through a database cursor, opened and closed in the export's transaction.
+     *
+     * @throws TaskRejectedException if too many exports are in progress
+     */
+    public <T> Export fromCursor(String name, Format format, List<Column<T>> columns, Supplier<Stream<T>> rows) {
+        return export(name, format, out -> {
+            // The request's open-in-view EntityManager is bound to this thread too, and is closed
+            // from the container thread when the client goes away; the cursor gets its own
+            Object requestEntityManager = TransactionSynchronizationManager.unbindResourceIfPossible(entityManagerFactory);
+            try {
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    try (Stream<T> stream = rows.get()) {
+                        write(name, format, columns, stream, out);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                if (requestEntityManager != null) {
+                    TransactionSynchronizationManager.bindResource(entityManagerFactory, requestEntityManager);
+                }
+            }
+        });
+    }
+
+    /**
+     * Export of rows already in memory (e.g. the formation catalogue).
+     *
+     * @throws TaskRejectedException if too many exports are in progress
+     */
+    public <T> Export fromList(String name, Format format, List<Column<T>> columns, List<T> rows) {
+        return export(name, format, out -> write(name, format, columns, rows.stream(), out));
+    }
+
+    private Export export(String name, Format format, StreamingResponseBody body) {
+        if (!permits.tryAcquire()) {
+            throw new TaskRejectedException("Too many exports in progress");
+        }
+        Timer timer = Timer.builder("exports.duration")
+                .description("Time spent writing an export")
+                .tag("type", name)
+                .tag("format", format.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry);
+        return new Export(name + "-" + LocalDate.now() + "." + format.extension, format, out -> {
+            Timer.Sample sample = Timer.start();
+            try {
+                body.writeTo(out);
+            } catch (IOException e) {
+                // Usually the client going away; the transaction and cursor are closed by now
+                log.debug("Export of {} aborted: {}", name, e.getMessage());
+                throw e;
+            } finally {
+                sample.stop(timer);
+                permits.release();
+            }
+        });
+    }
+
+    private <T> void write(String name, Format format, List<Column<T>> columns, Stream<T> rows, OutputStream out)
+            throws IOException {
+        Counter rowCounter = Counter.builder("exports.rows")
+                .description("Rows written to exports")
+                .tag("type", name)
+                .register(meterRegistry);
+        try (TabularExportWriter writer = TabularExportWriter.open(format, out,
+                columns.stream().map(Column::getHeader).toList())) {
+            for (T row : (Iterable<T>) rows::iterator) {
+                writer.row(columns.stream().map(column -> column.getValue().apply(row)).toList());
+                rowCounter.increment();
+            }
+            writer.finish();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.uchk.university.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Set;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Renders small PNG previews: a scaled copy for images and the first page for PDFs.
+ * Sizes are checked before anything is decoded: images are read subsampled to about
+ * {@code max-width} and PDF pages rendered at a resolution giving that width, and sources whose
+ * decoded size would exceed {@code max-pixels} get no preview, so a small file declaring huge
+ * dimensions cannot exhaust the heap.
+ */
+@Component
+@Slf4j
+public class DocumentPreviewGenerator {
+    private static final Set<String> IMAGE_TYPES = Set.of("image/jpeg", "image/png", "image/gif");
+    private static final String PDF_TYPE = "application/pdf";
+    // Enough for a readable first page thumbnail without rendering at print resolution
+    private static final float PDF_RENDER_DPI = 72f;
+
+    private final FileStorageService fileStorageService;
+    private final int maxWidth;
+    private final long maxPixels;
+
+    public DocumentPreviewGenerator(FileStorageService fileStorageService,
+                                    @Value("${document.preview.max-width:320}") int maxWidth,
+                                    @Value("${document.preview.max-pixels:100000000}") long maxPixels) {
+        this.fileStorageService = fileStorageService;
+        this.maxWidth = maxWidth;
+        this.maxPixels = maxPixels;
+    }
+
+    public boolean supports(String contentType) {
+        return contentType != null && (IMAGE_TYPES.contains(contentType) || PDF_TYPE.equals(contentType));
+    }
+
+    /**
+     * Generates and stores the preview for a document's file.
+     *
+     * @return the stored preview's relative path, or null if the content type has no preview
+     */
+    public String generate(Long documentId, Path file, String contentType) throws IOException {
+        if (!supports(contentType)) {
+            return null;
+        }
+
+        BufferedImage source = PDF_TYPE.equals(contentType) ? renderFirstPage(documentId, file)
+                : readImage(documentId, file);
+        if (source == null) {
+            log.debug("No preview could be decoded for document {}", documentId);
+            return null;
+        }
+        return fileStorageService.storePreview(documentId, scaleToWidth(source));
+    }
+
+    private BufferedImage readImage(Long documentId, Path file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                // Read from the header, nothing decoded yet
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    log.info("No preview for document {}: image of {}x{} pixels is over the limit",
+                            documentId, width, height);
+                    return null;
+                }
+                // Keeps every n-th pixel, so only an image about maxWidth wide is held in memory
+                int step = Math.max(1, width / maxWidth);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage renderFirstPage(Long documentId, Path file) throws IOException {
+        // Temp-file backed buffers keep large PDFs off the heap
+        try (PDDocument pdf = PDDocument.load(file.toFile(), MemoryUsageSetting.setupTempFileOnly())) {
+            if (pdf.getNumberOfPages() == 0) {
+                return null;
+            }
+            // The page is rendered at its declared size (in points, 1/72 inch), rotation included
+            PDPage page = pdf.getPage(0);
+            PDRectangle box = page.getCropBox();
+            boolean quarterTurn = page.getRotation() % 180 != 0;
+            float widthPoints = quarterTurn ? box.getHeight() : box.getWidth();
+            float heightPoints = quarterTurn ? box.getWidth() : box.getHeight();
+            if (widthPoints <= 0 || heightPoints <= 0) {
+                return null;
+            }
+            float dpi = Math.min(PDF_RENDER_DPI, PDF_RENDER_DPI * maxWidth / widthPoints);
+            double scale = dpi / 72.0;
+            if ((widthPoints * scale) * (heightPoints * scale) > maxPixels) {
+                log.info("No preview for document {}: first page of {}x{} points is over the limit",
+                        documentId, widthPoints, heightPoints);
+                return null;
+            }
+            return new PDFRenderer(pdf).renderImageWithDPI(0, dpi, ImageType.RGB);
+        }
+    }
+
+    private BufferedImage scaleToWidth(BufferedImage source) {
+        if (source.getWidth() <= maxWidth) {
+            return source;
+        }
+        int height = Math.max(1, Math.round(source.getHeight() * (maxWidth / (float) source.getWidth())));
+        BufferedImage scaled = new BufferedImage(maxWidth, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            // Transparent areas become white rather than black
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, maxWidth, height);
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(source, 0, 0, maxWidth, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+}
@@ -0,0 +1,183 @@
+package com.uchk.university.service;
+
+import com.uchk.university.config.AsyncConfig;
+import com.uchk.university.entity.Document;
+import com.uchk.university.entity.DocumentProcessingStatus;
+import com.uchk.university.entity.NotificationType;
+import com.uchk.university.repository.DocumentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Post-upload pipeline run on the bounded document executor: search indexing (metadata and
+ * extracted text), preview generation and the creator's notification.
+ * Uploads only store the file and insert the row as PENDING. When the executor queue is full the
+ * document simply stays PENDING and is picked up by the periodic sweep, so bursts are absorbed
+ * without blocking request threads.
+ */
+@Service
+@Slf4j
+public class DocumentProcessingService {
+    private static final int SWEEP_BATCH_SIZE = 100;
+
+    private final DocumentRepository documentRepository;
+    private final DocumentSearchService documentSearchService;
+    private final DocumentTextExtractor documentTextExtractor;
+    private final DocumentPreviewGenerator documentPreviewGenerator;
+    private final FileStorageService fileStorageService;
+    private final NotificationService notificationService;
+    private final TaskExecutor documentTaskExecutor;
+    private final Duration stalledAfter;
+    private final Timer processingTimer;
+
+    public DocumentProcessingService(DocumentRepository documentRepository,
+                                     DocumentSearchService documentSearchService,
+                                     DocumentTextExtractor documentTextExtractor,
+                                     DocumentPreviewGenerator documentPreviewGenerator,
+                                     FileStorageService fileStorageService,
+                                     NotificationService notificationService,
+                                     @Qualifier(AsyncConfig.DOCUMENT_TASK_EXECUTOR) TaskExecutor documentTaskExecutor,
+                                     @Value("${document.processing.stalled-after:PT15M}") Duration stalledAfter,
+                                     MeterRegistry meterRegistry) {
+        this.documentRepository = documentRepository;
+        this.documentSearchService = documentSearchService;
+        this.documentTextExtractor = documentTextExtractor;
+        this.documentPreviewGenerator = documentPreviewGenerator;
+        this.fileStorageService = fileStorageService;
+        this.notificationService = notificationService;
+        this.documentTaskExecutor = documentTaskExecutor;
+        this.stalledAfter = stalledAfter;
+        this.processingTimer = Timer.builder("documents.processing")
+                .description("Time spent processing a document after upload")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a PENDING document for processing. Never blocks: if the queue is full the sweep
+     * retries later.
+     */
+    public void submit(Long documentId) {
+        try {
+            documentTaskExecutor.execute(() -> process(documentId));
+        } catch (TaskRejectedException e) {
+            log.debug("Processing queue full, document {} left pending", documentId);
+        }
+    }
+
+    /**
+     * Requeues documents left PENDING (queue was full, or the node restarted) and releases
+     * those stuck in PROCESSING by a worker that died.
+     */
+    @Scheduled(fixedDelayString = "${document.processing.sweep-interval:60000}",
+            initialDelayString = "${document.processing.sweep-interval:60000}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        int released = documentRepository.resetStalledProcessing(now.minus(stalledAfter), now);
+        if (released > 0) {
+            log.warn("Released {} documents stuck in processing", released);
+        }
+
+        // Skip documents just submitted, which are most likely still queued
+        List<Long> pending = documentRepository.findIdsByProcessingStatusBefore(
+                DocumentProcessingStatus.PENDING, now.minusMinutes(1), PageRequest.of(0, SWEEP_BATCH_SIZE));
+        for (Long documentId : pending) {
+            try {
+                documentTaskExecutor.execute(() -> process(documentId));
+            } catch (TaskRejectedException e) {
+                // Still saturated; the next sweep continues from here
+                break;
+            }
+        }
+    }
+
+    void process(Long documentId) {
+        // Claim the document so a sweep or a second node never processes it twice
+        if (documentRepository.transitionProcessingStatus(documentId, DocumentProcessingStatus.PENDING,
+                DocumentProcessingStatus.PROCESSING, LocalDateTime.now()) == 0) {
+            return;
+        }
+        Document document = documentRepository.findById(documentId).orElse(null);
+        if (document == null) {
+            return;
+        }
+
+        String filePath = document.getFilePath();
+        processingTimer.record(() -> {
+            DocumentProcessingStatus status = DocumentProcessingStatus.READY;
+            String previewPath = null;
+            try {
+                documentSearchService.indexDocument(document);
+                if (filePath != null) {
+                    if (!documentTextExtractor.extract(documentId, filePath)) {
+                        status = DocumentProcessingStatus.FAILED;
+                    }
+                    previewPath = generatePreview(document);
+                }
+            } catch (Exception e) {
+                log.error("Processing failed for document {}: {}", documentId, e.getMessage());
+                status = DocumentProcessingStatus.FAILED;
+            }
+
+            if (documentRepository.completeProcessing(documentId, filePath, status, previewPath,
+                    LocalDateTime.now()) == 0) {
+                // Replaced by a newer upload (which is PENDING again) or deleted meanwhile
+                log.debug("Document {} changed while processing, result discarded", documentId);
+                if (previewPath != null && !documentRepository.existsById(documentId)) {
+                    fileStorageService.deleteFile(previewPath);
+                }
+                return;
+            }
+            // The row no longer points at the previous file's preview (kept until now so it was
+            // served meanwhile); a new preview would have overwritten it in place
+            if (previewPath == null && document.getPreviewPath() != null) {
+                try {
+                    fileStorageService.deleteFile(document.getPreviewPath());
+                } catch (Exception e) {
+                    log.warn("Could not delete previous preview of document {}: {}", documentId, e.getMessage());
+                }
+            }
+            log.info("Document {} processed: {}", documentId, status);
+            if (status == DocumentProcessingStatus.READY) {
+                notifyCreator(document);
+            }
+        });
+    }
+
+    private String generatePreview(Document document) {
+        if (!documentPreviewGenerator.supports(document.getContentType())) {
+            return null;
+        }
+        try {
+            return documentPreviewGenerator.generate(document.getId(),
+                    fileStorageService.loadAsPath(document.getFilePath()), document.getContentType());
+        } catch (Exception e) {
+            // A missing preview does not make the document unusable
+            log.warn("Could not generate preview for document {}: {}", document.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void notifyCreator(Document document) {
+        if (document.getCreator() == null) {
+            return;
+        }
+        try {
+            notificationService.createNotification(document.getCreator(),
+                    "Your document \"" + document.getTitle() + "\" is ready", NotificationType.DOCUMENT_ADDED);
+        } catch (Exception e) {
+            log.warn("Could not notify creator of document {}: {}", document.getId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.uchk.university.service;
+
+import com.uchk.university.config.AsyncConfig;
+import com.uchk.university.dto.CursorPage;
+import com.uchk.university.dto.DocumentSummary;
+import com.uchk.university.entity.Document;
+import com.uchk.university.entity.DocumentSearchEntry;
+import com.uchk.university.entity.DocumentType;
+import com.uchk.university.entity.Role;
+import com.uchk.university.entity.User;
+import com.uchk.university.repository.DocumentRepository;
+import com.uchk.university.repository.DocumentSearchRepository;
+import com.uchk.university.repository.DocumentSearchRepository.DocumentSearchRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Full-text search over document titles, descriptions and extracted file text, backed by a
+ * PostgreSQL tsvector column with a GIN index (see schema-postgresql.sql).
+ */
+@Service
+@Slf4j
+public class DocumentSearchService {
+    private static final int BACKFILL_BATCH_SIZE = 200;
+
+    private final DocumentSearchRepository documentSearchRepository;
+    private final DocumentRepository documentRepository;
+    private final DocumentTextExtractor documentTextExtractor;
+    private final TaskExecutor documentTaskExecutor;
+
+    public DocumentSearchService(DocumentSearchRepository documentSearchRepository,
+                                 DocumentRepository documentRepository,
+                                 DocumentTextExtractor documentTextExtractor,
+                                 @Qualifier(AsyncConfig.DOCUMENT_TASK_EXECUTOR) TaskExecutor documentTaskExecutor) {
+        this.documentSearchRepository = documentSearchRepository;
+        this.documentRepository = documentRepository;
+        this.documentTextExtractor = documentTextExtractor;
+        this.documentTaskExecutor = documentTaskExecutor;
+    }
+
+    /**
+     * Indexes the document's title and description. File text is added separately by
+     * {@link DocumentTextExtractor}. Indexing problems never fail the calling operation.
+     */
+    public void indexDocument(Document document) {
+        try {
+            if (documentSearchRepository.updateMetadata(
+                    document.getId(), document.getTitle(), document.getDescription()) == 0) {
+                documentSearchRepository.save(DocumentSearchEntry.builder()
+                        .documentId(document.getId())
+                        .title(document.getTitle())
+                        .description(document.getDescription())
+                        .build());
+            }
+        } catch (Exception e) {
+            log.warn("Could not index document {}: {}", document.getId(), e.getMessage());
+        }
+    }
+
+    public void removeDocument(Long documentId) {
+        try {
+            documentSearchRepository.deleteById(documentId);
+        } catch (Exception e) {
+            log.warn("Could not remove document {} from search index: {}", documentId, e.getMessage());
+        }
+    }
+
+    /**
+     * Ranked matches visible to the user, best first. The cursor is the offset of the next page.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public CursorPage<DocumentSummary> search(User user, String query, String cursor, int limit) {
+        int offset = decodeOffset(cursor);
+        List<DocumentSearchRow> rows = documentSearchRepository.search(
+                query, user.getRole() == Role.ADMIN, user.getId(), limit + 1, offset);
+
+        List<DocumentSummary> items = new ArrayList<>(Math.min(rows.size(), limit));
+        for (int i = 0; i < rows.size() && i < limit; i++) {
+            items.add(toSummary(rows.get(i)));
+        }
+        String nextCursor = rows.size() > limit ? String.valueOf(offset + limit) : null;
+        return new CursorPage<>(items, nextCursor);
+    }
+
+    /**
+     * Indexes documents created before search existed, on the document executor so startup
+     * is not delayed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        try {
+            documentTaskExecutor.execute(this::backfill);
+        } catch (TaskRejectedException e) {
+            log.warn("Search index backfill not started: document executor is saturated");
+        }
+    }
+
+    private void backfill() {
+        int indexed = 0;
+        try {
+            List<Document> batch;
+            do {
+                // Indexed documents drop out of the query, so always read the first page
+                batch = documentRepository.findWithoutSearchEntry(PageRequest.of(0, BACKFILL_BATCH_SIZE));
+                for (Document document : batch) {
+                    documentSearchRepository.save(DocumentSearchEntry.builder()
+                            .documentId(document.getId())
+                            .title(document.getTitle())
+                            .description(document.getDescription())
+                            .build());
+                    if (document.getFilePath() != null) {
+                        documentTextExtractor.extract(document.getId(), document.getFilePath());
+                    }
+                    indexed++;
+                }
+            } while (batch.size() == BACKFILL_BATCH_SIZE);
+        } catch (Exception e) {
+            log.warn("Search index backfill stopped after {} documents: {}", indexed, e.getMessage());
+            return;
+        }
+        if (indexed > 0) {
+            log.info("Search index backfill completed: {} documents", indexed);
+        }
+    }
+
+    private static DocumentSummary toSummary(DocumentSearchRow row) {
+        return new DocumentSummary(row.getId(), row.getTitle(), row.getDescription(),
+                row.getType() != null ? DocumentType.valueOf(row.getType()) : null,
+                row.getVisibilityLevel(), row.getFileName(), row.getContentType(), row.getFileSize(),
+                row.getCreatedAt(), row.getUpdatedAt(), row.getCreatorId(), row.getCreatorUsername());
+    }
+
+    private static int decodeOffset(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            int offset = Integer.parseInt(cursor);
+            if (offset < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return offset;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -1,22 +1,27 @@
 package com.uchk.university.service;
 
+import com.uchk.university.dto.CursorPage;
+import com.uchk.university.dto.DocumentSummary;
 import com.uchk.university.entity.Document;
 import com.uchk.university.entity.DocumentType;
 import com.uchk.university.entity.User;
 import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 
 public interface DocumentService {
     void init();
-    List<Document> getDocumentsForUser(Long userId);
+    CursorPage<DocumentSummary> getDocumentsForUser(User user, String cursor, int limit);
     Document createDocument(Document document, Long userId, MultipartFile file) throws Exception;
     Document updateDocument(Long id, Document document, MultipartFile file) throws Exception;
     Document getDocumentById(Long id);
     void deleteDocument(Long id);
     Resource loadFileAsResource(Long id) throws IOException;
     Resource loadFileAsResource(String filename) throws IOException;
+    Path loadFilePath(Document document);
+    Path loadPreviewPath(Document document);
     boolean isDocumentCreator(Long documentId, String username);
     boolean userHasAccessToDocument(Document document, User user);
     List<Document> getAllDocuments();
@@ -1,6 +1,10 @@
 package com.uchk.university.service;
 
+import com.uchk.university.dto.CursorPage;
+import com.uchk.university.dto.DocumentSummary;
+import com.uchk.university.dto.KeysetCursor;
 import com.uchk.university.entity.Document;
+import com.uchk.university.entity.DocumentProcessingStatus;
 import com.uchk.university.entity.DocumentType;
 import com.uchk.university.entity.Role;
 import com.uchk.university.entity.User;
@@ -12,6 +16,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -21,6 +27,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 
@@ -32,6 +40,8 @@ public class DocumentServiceImpl implements DocumentService {
     private final UserRepository userRepository;
     private final FileStorageService fileStorageService;
     private final NotificationService notificationService;
+    private final DocumentSearchService documentSearchService;
+    private final DocumentProcessingService documentProcessingService;
 
     @Value("${document.upload.dir}")
     private String uploadDir;
@@ -66,17 +76,22 @@ public class DocumentServiceImpl implements DocumentService {
             // Set creator and timestamps
             document.setCreator(creator);
             document.setCreatedAt(LocalDateTime.now());
+            
+            // Indexing, preview and notification happen in the background
+            document.setProcessingStatus(DocumentProcessingStatus.PENDING);
+            document.setProcessingUpdatedAt(document.getCreatedAt());
         
             // Handle file upload if present
+            StoredFile storedFile = null;
             if (file != null && !file.isEmpty()) {
-                String storedFileName = fileStorageService.store(file);
-                document.setFilePath(storedFileName);
-                document.setFileName(file.getOriginalFilename());
-                log.debug("File saved: {}", storedFileName);
+                storedFile = fileStorageService.storeFile(file);
+                applyStoredFile(document, storedFile, file);
+                log.debug("File saved: {}", storedFile.getPath());
             }
         
-            Document savedDocument = documentRepository.save(document);
+            Document savedDocument = saveWithStoredFile(document, storedFile);
             log.info("Document created successfully: {}", savedDocument.getId());
+            documentProcessingService.submit(savedDocument.getId());
             return savedDocument;
         } catch (Exception e) {
             log.error("Error creating document: {}", e.getMessage());
@@ -98,23 +113,69 @@ public class DocumentServiceImpl implements DocumentService {
 
         // Handle file upload if present
         if (file != null && !file.isEmpty()) {
-            // Delete old file if exists
-            if (document.getFilePath() != null) {
-                try {
-                    fileStorageService.delete(document.getFilePath());
-                } catch (Exception e) {
-                    log.warn("Could not delete old file: {}", document.getFilePath());
-                }
-            }
+            String oldFilePath = document.getFilePath();
 
             // Store new file
-            String storedFileName = fileStorageService.store(file);
-            document.setFilePath(storedFileName);
-            document.setFileName(file.getOriginalFilename());
-            log.debug("File updated: {}", storedFileName);
+            StoredFile storedFile = fileStorageService.storeFile(file);
+            applyStoredFile(document, storedFile, file);
+            log.debug("File updated: {}", storedFile.getPath());
+
+            Document savedDocument = saveWithStoredFile(document, storedFile);
+            
+            // The new file is indexed and previewed in the background
+            documentRepository.markProcessingPending(id, LocalDateTime.now());
+            savedDocument.setProcessingStatus(DocumentProcessingStatus.PENDING);
+            documentProcessingService.submit(id);
+
+            // Old file goes only once the new reference is saved, and only if no other document shares it
+            if (oldFilePath != null && !oldFilePath.equals(storedFile.getPath())) {
+                deleteFileIfUnreferenced(oldFilePath);
+            }
+            return savedDocument;
         } 
 
-        return documentRepository.save(document);
+        Document savedDocument = documentRepository.save(document);
+        documentSearchService.indexDocument(savedDocument);
+        return savedDocument;
+    }
+
+    /**
+     * Saves a document pointing at a freshly stored file, then releases the file's pending
+     * reference. If the save fails the file is removed again unless another document uses it.
+     */
+    private Document saveWithStoredFile(Document document, StoredFile storedFile) {
+        if (storedFile == null) {
+            return documentRepository.save(document);
+        }
+        boolean saved = false;
+        try {
+            Document savedDocument = documentRepository.save(document);
+            saved = true;
+            return savedDocument;
+        } finally {
+            fileStorageService.releasePendingReference(storedFile.getPath());
+            if (!saved) {
+                deleteFileIfUnreferenced(storedFile.getPath());
+            }
+        }
+    }
+
+    private void deleteFileIfUnreferenced(String filePath) {
+        try {
+            if (fileStorageService.deleteIfUnreferenced(filePath, () -> documentRepository.countByFilePath(filePath))) {
+                log.info("Unreferenced file deleted: {}", filePath);
+            }
+        } catch (Exception e) {
+            log.warn("Could not delete file: {}", filePath);
+        }
+    }
+
+    private void applyStoredFile(Document document, StoredFile storedFile, MultipartFile file) {
+        document.setFilePath(storedFile.getPath());
+        document.setFileName(file.getOriginalFilename());
+        document.setContentHash(storedFile.getSha256());
+        document.setFileSize(storedFile.getSize());
+        document.setContentType(storedFile.getContentType());
     }
 
     @Override
@@ -156,19 +217,22 @@ public class DocumentServiceImpl implements DocumentService {
         Document document = getDocumentById(id);
         
         try {
-            // Delete associated file if it exists
+            // Delete document from database
+            documentSearchService.removeDocument(id);
+            documentRepository.delete(document);
+            log.info("Document deleted successfully: {}", id);
+            
+            // Delete associated file unless another document still references the same content
             if (document.getFilePath() != null && !document.getFilePath().isEmpty()) {
+                deleteFileIfUnreferenced(document.getFilePath());
+            }
+            if (document.getPreviewPath() != null) {
                 try {
-                    fileStorageService.deleteFile(document.getFilePath());
-                    log.info("Associated file deleted: {}", document.getFilePath());
+                    fileStorageService.deleteFile(document.getPreviewPath());
                 } catch (Exception e) {
-                    log.warn("Could not delete associated file: {}", document.getFilePath());
+                    log.warn("Could not delete preview: {}", document.getPreviewPath());
                 }
             }
-            
-            // Delete document from database
-            documentRepository.delete(document);
-            log.info("Document deleted successfully: {}", id);
         } catch (Exception e) {
             log.error("Error deleting document: {}", id);
             throw new DocumentStorageException("Could not delete document: " + id, e);
@@ -187,18 +251,62 @@ public class DocumentServiceImpl implements DocumentService {
     }
     
     @Override
-    public List<Document> getDocumentsForUser(Long userId) {
-        // Implementation based on user's role and permissions
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+    public CursorPage<DocumentSummary> getDocumentsForUser(User user, String cursor, int limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        // One extra row tells whether another page follows
+        Pageable fetch = PageRequest.of(0, limit + 1);
         
-        // Admin can see all documents
+        List<DocumentSummary> rows;
         if (user.getRole() == Role.ADMIN) {
-            return getAllDocuments();
+            // Admin can see all documents
+            rows = documentRepository.findSummariesAfter(after.getCreatedAt(), after.getId(), fetch);
+        } else {
+            // Other users see public documents and their own. Each branch is read through its own
+            // index and the two sorted slices are merged, instead of an OR that defeats both indexes
+            rows = mergeByKeyset(
+                    documentRepository.findSummariesByVisibilityAfter(
+                            "PUBLIC", after.getCreatedAt(), after.getId(), fetch),
+                    documentRepository.findSummariesByCreatorAfter(
+                            user.getId(), after.getCreatedAt(), after.getId(), fetch),
+                    limit + 1);
         }
         
-        // Other users see documents based on visibility
-        return documentRepository.findByVisibilityLevelOrCreator("PUBLIC", user);
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<DocumentSummary> page = rows.subList(0, limit);
+        DocumentSummary last = page.get(limit - 1);
+        return new CursorPage<>(new ArrayList<>(page), new KeysetCursor(last.getCreatedAt(), last.getId()).encode());
+    }
+
+    private static final Comparator<DocumentSummary> KEYSET_ORDER = Comparator
+            .comparing(DocumentSummary::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(DocumentSummary::getId, Comparator.reverseOrder());
+
+    /**
+     * Merges two lists sorted in keyset order, dropping duplicates (a public document owned by
+     * the user appears in both), up to {@code max} rows.
+     */
+    private static List<DocumentSummary> mergeByKeyset(List<DocumentSummary> left, List<DocumentSummary> right, int max) {
+        List<DocumentSummary> merged = new ArrayList<>(Math.min(max, left.size() + right.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < max && (i < left.size() || j < right.size())) {
+            DocumentSummary next;
+            if (j >= right.size()) {
+                next = left.get(i++);
+            } else if (i >= left.size()) {
+                next = right.get(j++);
+            } else {
+                int order = KEYSET_ORDER.compare(left.get(i), right.get(j));
+                if (order == 0) {
+                    j++;
+                }
+                next = order <= 0 ? left.get(i++) : right.get(j++);
+            }
+            merged.add(next);
+        }
+        return merged;
     }
 
     @Override
@@ -210,6 +318,22 @@ public class DocumentServiceImpl implements DocumentService {
         return loadFileAsResource(document.getFilePath());
     }
     
+    @Override
+    public Path loadFilePath(Document document) {
+        if (document.getFilePath() == null) {
+            throw new ResourceNotFoundException("No file found for document with id: " + document.getId());
+        }
+        return fileStorageService.loadAsPath(document.getFilePath());
+    }
+    
+    @Override
+    public Path loadPreviewPath(Document document) {
+        if (document.getPreviewPath() == null) {
+            throw new ResourceNotFoundException("No preview found for document with id: " + document.getId());
+        }
+        return fileStorageService.loadAsPath(document.getPreviewPath());
+    }
+    
     @Override
     public boolean userHasAccessToDocument(Document document, User user) {
         // Admin has access to all documents
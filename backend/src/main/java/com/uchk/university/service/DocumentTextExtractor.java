@@ -0,0 +1,61 @@
+package com.uchk.university.service;
+
+import com.uchk.university.repository.DocumentSearchRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.tika.Tika;
+import org.apache.tika.io.TikaInputStream;
+import org.apache.tika.metadata.Metadata;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * Extracts the text of stored files into the search index.
+ */
+@Service
+@Slf4j
+public class DocumentTextExtractor {
+    private final DocumentSearchRepository documentSearchRepository;
+    private final FileStorageService fileStorageService;
+    private final Tika tika = new Tika();
+    // Keeps each document well below the 1MB tsvector limit
+    private final int maxChars;
+
+    public DocumentTextExtractor(DocumentSearchRepository documentSearchRepository,
+                                 FileStorageService fileStorageService,
+                                 @Value("${search.extraction.max-chars:100000}") int maxChars) {
+        this.documentSearchRepository = documentSearchRepository;
+        this.fileStorageService = fileStorageService;
+        this.maxChars = maxChars;
+    }
+
+    /**
+     * Extracts and stores the text of the document's file. Failures are logged and leave the
+     * document searchable by title and description only.
+     *
+     * @return false if the file could not be read or parsed
+     */
+    public boolean extract(Long documentId, String filePath) {
+        try {
+            Path file = fileStorageService.loadAsPath(filePath);
+            String text;
+            try (InputStream in = TikaInputStream.get(file)) {
+                text = tika.parseToString(in, new Metadata(), maxChars);
+            }
+            int updated = documentSearchRepository.updateContent(
+                    documentId, filePath, text.strip(), LocalDateTime.now());
+            if (updated == 0) {
+                log.debug("Document {} changed file or was deleted before its text was indexed", documentId);
+            } else {
+                log.debug("Indexed {} characters for document {}", text.length(), documentId);
+            }
+            return true;
+        } catch (Exception e) {
+            log.warn("Could not extract text for document {}: {}", documentId, e.getMessage());
+            return false;
+        }
+    }
+}
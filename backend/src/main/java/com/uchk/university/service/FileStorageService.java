@@ -2,6 +2,7 @@ package com.uchk.university.service;
 
 import com.uchk.university.exception.DocumentStorageException;
 import org.apache.tika.Tika;
+import org.apache.tika.io.TikaInputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,6 +12,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.awt.image.RenderedImage;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
@@ -18,11 +20,19 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import javax.imageio.ImageIO;
 
 @Service
 public class FileStorageService {
@@ -38,12 +48,28 @@ public class FileStorageService {
     // Maximum file size in bytes (10MB)
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024;
     
+    // Generated previews live beside the shard folders (whose names are two hex chars)
+    private static final String PREVIEW_FOLDER = "previews";
+    
     // Apache Tika for MIME type detection
     private final Tika tika = new Tika();
     
-    public FileStorageService(@Value("${upload.root-location:uploads}") String uploadRootLocation) {
+    // Name files by SHA-256 so identical uploads are stored once
+    private final boolean contentAddressed;
+    
+    // Uploads stored but not yet recorded on a document, per relative path (guarded by lockFor)
+    private final Map<String, Integer> pendingReferences = new ConcurrentHashMap<>();
+    private final Object[] blobLocks = new Object[64];
+    
+    public FileStorageService(
+            @Value("${upload.root-location:uploads}") String uploadRootLocation,
+            @Value("${upload.content-addressed:true}") boolean contentAddressed) {
         this.rootLocation = Paths.get(uploadRootLocation).toAbsolutePath().normalize();
         this.uploadRootLocation = uploadRootLocation;
+        this.contentAddressed = contentAddressed;
+        for (int i = 0; i < blobLocks.length; i++) {
+            blobLocks[i] = new Object();
+        }
         
         // Initialize allowed file types map with MIME types
         allowedFileTypesMap.put("pdf", Arrays.asList("application/pdf"));
@@ -91,42 +117,56 @@ public class FileStorageService {
     }
 
     public String store(MultipartFile file) {
+        return storeFile(file).getPath();
+    }
+
+    /**
+     * Stores an upload in a single streaming pass: the bytes are read once, the SHA-256 digest is
+     * computed on the way to a temp file, the MIME type is detected on that file, and the file is
+     * then atomically moved into its shard folder.
+     * The upload is never buffered in memory: detecting on a file lets Tika open zip containers
+     * (Office documents) in place rather than marking the whole stream.
+     * In content-addressed mode identical uploads share one file; callers must pair this with
+     * {@link #releasePendingReference} and delete through {@link #deleteIfUnreferenced}.
+     */
+    public StoredFile storeFile(MultipartFile file) {
         validateFile(file);
         
         String originalFilename = StringUtils.cleanPath(file.getOriginalFilename());
         String sanitizedFilename = sanitizeFilename(originalFilename);
         String extension = getFileExtension(sanitizedFilename);
         
-        // Generate a UUID-based filename with a folder structure to prevent too many files in one directory
-        String uuid = UUID.randomUUID().toString();
-        String folderPrefix = uuid.substring(0, 2); // Use first 2 chars as folder
-        String filename = uuid + "." + extension;
-        
+        Path tempFile = null;
         try {
             if (!Files.exists(rootLocation)) {
                 init();
             }
             
-            // Create subfolder if needed
-            Path subFolder = rootLocation.resolve(folderPrefix).normalize();
-            if (!Files.exists(subFolder)) {
-                Files.createDirectories(subFolder);
-                
-                // Set directory permissions
-                try {
-                    Files.setPosixFilePermissions(subFolder, 
-                        java.nio.file.attribute.PosixFilePermissions.fromString("rwx------"));
-                } catch (UnsupportedOperationException e) {
-                    // Non-POSIX fallback
-                    subFolder.toFile().setReadable(false, false);
-                    subFolder.toFile().setReadable(true, true);
-                    subFolder.toFile().setWritable(false, false);
-                    subFolder.toFile().setWritable(true, true);
-                    subFolder.toFile().setExecutable(false, false);
-                    subFolder.toFile().setExecutable(true, true);
-                }
+            // Staged in the upload root: same filesystem as every shard folder, so the final move is an atomic rename
+            tempFile = Files.createTempFile(rootLocation, ".upload-", ".tmp");
+            
+            MessageDigest digest = newContentDigest();
+            String detectedMimeType;
+            long size;
+            try (InputStream raw = file.getInputStream();
+                 DigestInputStream in = new DigestInputStream(raw, digest)) {
+                size = Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
             }
+            try (TikaInputStream in = TikaInputStream.get(tempFile)) {
+                detectedMimeType = tika.detect(in);
+            }
+            verifyFileContent(detectedMimeType, extension);
+            restrictFilePermissions(tempFile);
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            
+            // Content-addressed blobs are named after their hash, otherwise after a fresh UUID.
+            // Either way the first 2 chars pick the folder, to prevent too many files in one directory
+            String baseName = contentAddressed ? sha256 : UUID.randomUUID().toString();
+            String folderPrefix = baseName.substring(0, 2);
+            String filename = baseName + "." + extension;
+            String relativePath = folderPrefix + "/" + filename;
             
+            Path subFolder = ensureShardFolder(folderPrefix);
             Path destinationFile = subFolder.resolve(filename).normalize();
             
             // Double-check that the destination file is within the valid directory structure
@@ -135,92 +175,194 @@ public class FileStorageService {
                 throw new DocumentStorageException("Cannot store file outside designated upload directory");
             }
             
-            // Verify content type again with the actual file content
-            try (InputStream is = file.getInputStream()) {
-                verifyFileContent(is, extension);
+            synchronized (lockFor(relativePath)) {
+                if (contentAddressed && Files.exists(destinationFile)) {
+                    // Identical content is already stored: keep the existing blob, drop the temp copy
+                    logger.info("Upload deduplicated onto existing file: {}", destinationFile);
+                } else {
+                    Files.move(tempFile, destinationFile, StandardCopyOption.ATOMIC_MOVE);
+                    logger.info("Successfully stored file: {}", destinationFile);
+                }
+                // Protects the blob from deletion until the caller has recorded its reference
+                pendingReferences.merge(relativePath, 1, Integer::sum);
             }
             
-            // Use StandardCopyOption.REPLACE_EXISTING to handle potential file conflicts
-            Files.copy(file.getInputStream(), destinationFile, StandardCopyOption.REPLACE_EXISTING);
-            logger.info("Successfully stored file: {}", destinationFile);
+            // Store the relative path with the folder structure
+            return new StoredFile(relativePath, sha256, size, detectedMimeType);
+        } catch (IOException e) {
+            logger.error("Failed to store file {}", sanitizedFilename, e);
+            throw new DocumentStorageException("Failed to store file " + sanitizedFilename, e);
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
+    
+    /**
+     * Must be called once the reference returned by {@link #storeFile} has been persisted
+     * (or abandoned), so the blob becomes eligible for deletion again.
+     */
+    public void releasePendingReference(String path) {
+        synchronized (lockFor(path)) {
+            pendingReferences.computeIfPresent(path, (key, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+    
+    /**
+     * Deletes a stored file once nothing refers to it anymore: no persisted reference
+     * (as counted by the caller) and no upload of the same content in flight.
+     *
+     * @return true if the file was deleted
+     */
+    public boolean deleteIfUnreferenced(String path, LongSupplier remainingReferences) {
+        synchronized (lockFor(path)) {
+            if (pendingReferences.containsKey(path) || remainingReferences.getAsLong() > 0) {
+                logger.debug("File still referenced, keeping it: {}", path);
+                return false;
+            }
+            deleteFile(path);
+            return true;
+        }
+    }
+    
+    private Object lockFor(String path) {
+        return blobLocks[Math.floorMod(path.hashCode(), blobLocks.length)];
+    }
+    
+    private Path ensureShardFolder(String folderPrefix) throws IOException {
+        if (!Files.exists(rootLocation)) {
+            init();
+        }
+        
+        // Create subfolder if needed
+        Path subFolder = rootLocation.resolve(folderPrefix).normalize();
+        if (!Files.exists(subFolder)) {
+            Files.createDirectories(subFolder);
             
-            // Set restrictive permissions on the file
+            // Set directory permissions
             try {
-                Files.setPosixFilePermissions(destinationFile, 
-                    java.nio.file.attribute.PosixFilePermissions.fromString("rw-------"));
+                Files.setPosixFilePermissions(subFolder, 
+                    java.nio.file.attribute.PosixFilePermissions.fromString("rwx------"));
             } catch (UnsupportedOperationException e) {
-                // If not on POSIX system
-                destinationFile.toFile().setReadable(false, false);
-                destinationFile.toFile().setReadable(true, true);
-                destinationFile.toFile().setWritable(false, false);
-                destinationFile.toFile().setWritable(true, true);
-                destinationFile.toFile().setExecutable(false, false);
+                // Non-POSIX fallback
+                subFolder.toFile().setReadable(false, false);
+                subFolder.toFile().setReadable(true, true);
+                subFolder.toFile().setWritable(false, false);
+                subFolder.toFile().setWritable(true, true);
+                subFolder.toFile().setExecutable(false, false);
+                subFolder.toFile().setExecutable(true, true);
             }
-            
-            // Store the relative path with the folder structure
-            return folderPrefix + "/" + filename;
-        } catch (IOException e) {
-            logger.error("Failed to store file {}", filename, e);
-            throw new DocumentStorageException("Failed to store file " + filename, e);
         }
+        return subFolder;
     }
     
-    private void verifyFileContent(InputStream inputStream, String claimedExtension) {
+    private void restrictFilePermissions(Path path) throws IOException {
+        // Set restrictive permissions on the file
         try {
-            // Detect actual MIME type
-            String detectedMimeType = tika.detect(inputStream);
-            
-            // Get expected MIME types for the claimed extension
-            List<String> expectedMimeTypes = allowedFileTypesMap.get(claimedExtension.toLowerCase());
-            
-            if (expectedMimeTypes == null || !expectedMimeTypes.contains(detectedMimeType)) {
-                logger.warn("MIME type mismatch: claimed extension '{}', detected MIME '{}'", 
-                          claimedExtension, detectedMimeType);
-                throw new DocumentStorageException("File content does not match the claimed file type");
-            }
+            Files.setPosixFilePermissions(path, 
+                java.nio.file.attribute.PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException e) {
+            // If not on POSIX system
+            path.toFile().setReadable(false, false);
+            path.toFile().setReadable(true, true);
+            path.toFile().setWritable(false, false);
+            path.toFile().setWritable(true, true);
+            path.toFile().setExecutable(false, false);
+        }
+    }
+    
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
         } catch (IOException e) {
-            logger.error("Error verifying file content", e);
-            throw new DocumentStorageException("Could not verify file content", e);
+            logger.warn("Could not remove temporary upload file {}", path);
+        }
+    }
+    
+    private static MessageDigest newContentDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory on every Java platform
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    private void verifyFileContent(String detectedMimeType, String claimedExtension) {
+        // Get expected MIME types for the claimed extension
+        List<String> expectedMimeTypes = allowedFileTypesMap.get(claimedExtension.toLowerCase());
+        
+        if (expectedMimeTypes == null || !expectedMimeTypes.contains(detectedMimeType)) {
+            logger.warn("MIME type mismatch: claimed extension '{}', detected MIME '{}'", 
+                      claimedExtension, detectedMimeType);
+            throw new DocumentStorageException("File content does not match the claimed file type");
         }
     }
 
     public Resource loadAsResource(String filename) {
+        Path file = loadAsPath(filename);
         try {
-            // Security: Prevent any path traversal attempts
-            if (filename == null || filename.isEmpty() || filename.contains("..")) {
-                logger.warn("Blocked access attempt with suspicious filename: {}", filename);
-                throw new DocumentStorageException("Invalid filename: " + filename);
-            }
-            
-            // Handle the new folder structure
-            Path file;
-            if (filename.contains("/")) {
-                // Assume the format is "prefix/uuid.ext"
-                file = rootLocation.resolve(filename).normalize();
-            } else {
-                // For backward compatibility, assume it's just a filename
-                file = rootLocation.resolve(filename).normalize();
-            }
-            
-            // Extra security: ensure we don't leave the root location
-            if (!file.toAbsolutePath().startsWith(rootLocation.toAbsolutePath())) {
-                logger.warn("Blocked file access attempt outside storage directory");
-                throw new DocumentStorageException("File access attempt outside of storage directory");
-            }
-            
-            Resource resource = new UrlResource(file.toUri());
-            if (resource.exists() && resource.isReadable()) {
-                return resource;
-            } else {
-                logger.warn("File not found or not readable: {}", filename);
-                throw new DocumentStorageException("Could not read file: " + filename);
-            }
+            return new UrlResource(file.toUri());
         } catch (MalformedURLException e) {
             logger.error("Could not read file: {}", filename, e);
             throw new DocumentStorageException("Could not read file: " + filename, e);
         }
     }
 
+    /**
+     * Resolves a stored file to its absolute path, for callers that stream it themselves.
+     */
+    public Path loadAsPath(String filename) {
+        // Security: Prevent any path traversal attempts
+        if (filename == null || filename.isEmpty() || filename.contains("..")) {
+            logger.warn("Blocked access attempt with suspicious filename: {}", filename);
+            throw new DocumentStorageException("Invalid filename: " + filename);
+        }
+        
+        // Handles both "prefix/name.ext" and legacy bare file names
+        Path file = rootLocation.resolve(filename).normalize();
+        
+        // Extra security: ensure we don't leave the root location
+        if (!file.toAbsolutePath().startsWith(rootLocation.toAbsolutePath())) {
+            logger.warn("Blocked file access attempt outside storage directory");
+            throw new DocumentStorageException("File access attempt outside of storage directory");
+        }
+        
+        if (!Files.isRegularFile(file) || !Files.isReadable(file)) {
+            logger.warn("File not found or not readable: {}", filename);
+            throw new DocumentStorageException("Could not read file: " + filename);
+        }
+        return file;
+    }
+
+    /**
+     * Stores a PNG preview for a document, replacing any previous one.
+     *
+     * @return the preview's path relative to the upload root
+     */
+    public String storePreview(Long documentId, RenderedImage image) {
+        String relativePath = PREVIEW_FOLDER + "/" + documentId + ".png";
+        Path tempFile = null;
+        try {
+            Path previewFolder = ensureShardFolder(PREVIEW_FOLDER);
+            tempFile = Files.createTempFile(rootLocation, ".preview-", ".tmp");
+            if (!ImageIO.write(image, "png", tempFile.toFile())) {
+                throw new DocumentStorageException("No PNG writer available");
+            }
+            restrictFilePermissions(tempFile);
+            Files.move(tempFile, previewFolder.resolve(documentId + ".png"),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return relativePath;
+        } catch (IOException e) {
+            logger.error("Failed to store preview for document {}", documentId, e);
+            throw new DocumentStorageException("Failed to store preview for document " + documentId, e);
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
+
     public void deleteFile(String filename) {
         try {
             // Security: Prevent any path traversal attempts
@@ -0,0 +1,170 @@
+package com.uchk.university.service;
+
+import com.uchk.university.entity.Formation;
+import com.uchk.university.repository.FormationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The formation catalogue held in memory as an immutable snapshot, with indexes by id, type and
+ * level, so public catalogue reads are a volatile read and a map lookup.
+ * The snapshot is replaced whole: after every committed create, update or delete on this node,
+ * and periodically to pick up changes made through other nodes. Formations in the snapshot are
+ * detached copies shared by all readers and must not be modified.
+ * Each snapshot carries a {@link Version} for HTTP validators. It is derived from the content,
+ * so every node serving the same catalogue hands out the same ETag, and a periodic refresh that
+ * finds nothing new keeps the previous one.
+ */
+@Component
+@Slf4j
+public class FormationCatalogue {
+    private final FormationRepository formationRepository;
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer refreshTimer;
+    private volatile Snapshot snapshot;
+
+    public FormationCatalogue(FormationRepository formationRepository, MeterRegistry meterRegistry) {
+        this.formationRepository = formationRepository;
+        this.hits = Counter.builder("formations.catalogue.lookups").tag("result", "hit")
+                .description("Catalogue lookups by id").register(meterRegistry);
+        this.misses = Counter.builder("formations.catalogue.lookups").tag("result", "miss")
+                .description("Catalogue lookups by id").register(meterRegistry);
+        this.refreshTimer = Timer.builder("formations.catalogue.refresh")
+                .description("Time spent rebuilding the formation catalogue snapshot")
+                .register(meterRegistry);
+        Gauge.builder("formations.catalogue.size", this, catalogue -> catalogue.current().all.size())
+                .description("Formations in the catalogue snapshot")
+                .register(meterRegistry);
+        Gauge.builder("formations.catalogue.age", this,
+                        catalogue -> Duration.between(catalogue.current().builtAt, Instant.now()).toSeconds())
+                .description("Seconds since the catalogue snapshot was built")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Validators for the current snapshot, identical for every catalogue endpoint.
+     */
+    public Version getVersion() {
+        return current().version;
+    }
+
+    public List<Formation> getAll() {
+        return current().all;
+    }
+
+    public Formation get(Long id) {
+        Formation formation = current().byId.get(id);
+        (formation != null ? hits : misses).increment();
+        return formation;
+    }
+
+    public List<Formation> getByType(String type) {
+        return current().byType.getOrDefault(type, List.of());
+    }
+
+    public List<Formation> getByLevel(String level) {
+        return current().byLevel.getOrDefault(level, List.of());
+    }
+
+    /**
+     * Rebuilds the snapshot once the current transaction commits (immediately outside one).
+     */
+    public void refreshAfterCommit() {
+        TransactionCallbacks.afterCommit(this::refresh);
+    }
+
+    /**
+     * Reloads the catalogue from the database. Serialized, so a rebuild started after a commit
+     * always publishes a snapshot that includes it.
+     */
+    @Scheduled(fixedDelayString = "${formation.catalogue.refresh-interval:300000}",
+            initialDelayString = "${formation.catalogue.refresh-interval:300000}")
+    public synchronized void refresh() {
+        Snapshot previous = snapshot;
+        snapshot = refreshTimer.record(() -> new Snapshot(formationRepository.findAll().stream()
+                .map(FormationCatalogue::detachedCopy)
+                .sorted(Comparator.comparing(Formation::getId))
+                .toList(), previous));
+        log.debug("Formation catalogue rebuilt with {} formations, version {}",
+                snapshot.all.size(), snapshot.version.getEtag());
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private static Formation detachedCopy(Formation formation) {
+        return new Formation(formation.getId(), formation.getName(), formation.getType(), formation.getLevel(),
+                formation.getStartDate(), formation.getEndDate(), formation.getDescription(),
+                formation.getFundingAmount(), formation.getFundingType());
+    }
+
+    @Value
+    public static class Version {
+        /** Weak ETag, quoted */
+        String etag;
+        /** Epoch millis, truncated to seconds as HTTP dates are */
+        long lastModified;
+    }
+
+    private static final class Snapshot {
+        private final List<Formation> all;
+        private final Map<Long, Formation> byId;
+        private final Map<String, List<Formation>> byType;
+        private final Map<String, List<Formation>> byLevel;
+        private final Instant builtAt = Instant.now();
+        private final Version version;
+
+        private Snapshot(List<Formation> formations, Snapshot previous) {
+            this.all = List.copyOf(formations);
+            this.version = version(formations, previous);
+            this.byId = formations.stream().collect(Collectors.toUnmodifiableMap(Formation::getId, Function.identity()));
+            this.byType = index(formations, Formation::getType);
+            this.byLevel = index(formations, Formation::getLevel);
+        }
+
+        private Version version(List<Formation> formations, Snapshot previous) {
+            long fingerprint = formations.size();
+            for (Formation formation : formations) {
+                fingerprint = fingerprint * 0x9E3779B97F4A7C15L + formation.hashCode();
+            }
+            String etag = "W/\"" + Long.toHexString(fingerprint) + "\"";
+            if (previous != null && previous.version.getEtag().equals(etag)) {
+                return previous.version;
+            }
+            return new Version(etag, builtAt.toEpochMilli() / 1000 * 1000);
+        }
+
+        private static Map<String, List<Formation>> index(List<Formation> formations,
+                                                          Function<Formation, String> key) {
+            return Map.copyOf(formations.stream()
+                    .filter(formation -> key.apply(formation) != null)
+                    .collect(Collectors.groupingBy(key, Collectors.collectingAndThen(Collectors.toList(), List::copyOf))));
+        }
+    }
+}
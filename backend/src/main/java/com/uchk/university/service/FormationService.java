@@ -9,6 +9,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -18,46 +19,80 @@ import java.util.List;
 public class FormationService {
     private final FormationRepository formationRepository;
     private final StaffRepository staffRepository;
+    private final FormationCatalogue formationCatalogue;
+    private final DirectoryExporter directoryExporter;
+
+    private static final List<DirectoryExporter.Column<Formation>> EXPORT_COLUMNS = List.of(
+            new DirectoryExporter.Column<>("id", Formation::getId),
+            new DirectoryExporter.Column<>("name", Formation::getName),
+            new DirectoryExporter.Column<>("type", Formation::getType),
+            new DirectoryExporter.Column<>("level", Formation::getLevel),
+            new DirectoryExporter.Column<>("startDate", Formation::getStartDate),
+            new DirectoryExporter.Column<>("endDate", Formation::getEndDate),
+            new DirectoryExporter.Column<>("fundingAmount", Formation::getFundingAmount),
+            new DirectoryExporter.Column<>("fundingType", Formation::getFundingType),
+            new DirectoryExporter.Column<>("description", Formation::getDescription));
 
     @Transactional
     @PreAuthorize("hasAnyRole('ADMIN', 'FORMATION_MANAGER')")
     public Formation createFormation(Formation formation) {
         // Validate the formation data
         validateFormation(formation);
-        return formationRepository.save(formation);
+        Formation saved = formationRepository.save(formation);
+        formationCatalogue.refreshAfterCommit();
+        return saved;
     }
 
-    @Transactional(readOnly = true)
+    // Catalogue reads are served from memory (see FormationCatalogue); the returned formations are read-only
+
     public Formation getFormationById(Long id) {
-        return formationRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Formation not found with id: " + id));
+        Formation formation = formationCatalogue.get(id);
+        if (formation == null) {
+            throw new ResourceNotFoundException("Formation not found with id: " + id);
+        }
+        return formation;
+    }
+
+    public FormationCatalogue.Version getCatalogueVersion() {
+        return formationCatalogue.getVersion();
     }
 
-    @Transactional(readOnly = true)
     public List<Formation> getAllFormations() {
-        return formationRepository.findAll();
+        return formationCatalogue.getAll();
     }
 
-    @Transactional(readOnly = true)
     public List<Formation> getFormationsByType(String type) {
         if (type == null || type.trim().isEmpty()) {
             throw new IllegalArgumentException("Formation type cannot be empty");
         }
-        return formationRepository.findByType(type);
+        return formationCatalogue.getByType(type);
     }
 
-    @Transactional(readOnly = true)
     public List<Formation> getFormationsByLevel(String level) {
         if (level == null || level.trim().isEmpty()) {
             throw new IllegalArgumentException("Formation level cannot be empty");
         }
-        return formationRepository.findByLevel(level);
+        return formationCatalogue.getByLevel(level);
+    }
+
+    /**
+     * The catalogue, optionally of one type and/or level, written out from the in-memory snapshot.
+     *
+     * @throws org.springframework.core.task.TaskRejectedException if too many exports are in progress
+     */
+    @PreAuthorize("hasAnyRole('ADMIN', 'FORMATION_MANAGER')")
+    public DirectoryExporter.Export exportFormations(String type, String level, DirectoryExporter.Format format) {
+        List<Formation> formations = formationCatalogue.getAll().stream()
+                .filter(formation -> !StringUtils.hasText(type) || type.trim().equals(formation.getType()))
+                .filter(formation -> !StringUtils.hasText(level) || level.trim().equals(formation.getLevel()))
+                .toList();
+        return directoryExporter.fromList("formations", format, EXPORT_COLUMNS, formations);
     }
 
     @Transactional
     @PreAuthorize("hasAnyRole('ADMIN', 'FORMATION_MANAGER')")
     public Formation updateFormation(Long id, Formation formationDetails) {
-        Formation formation = getFormationById(id);
+        Formation formation = loadFormation(id);
         
         // Validate the updated formation data
         validateFormation(formationDetails);
@@ -72,15 +107,18 @@ public class FormationService {
         formation.setFundingAmount(formationDetails.getFundingAmount());
         formation.setFundingType(formationDetails.getFundingType());
         
-        return formationRepository.save(formation);
+        Formation saved = formationRepository.save(formation);
+        formationCatalogue.refreshAfterCommit();
+        return saved;
     }
 
     @Transactional
     @PreAuthorize("hasRole('ADMIN')")
     public void deleteFormation(Long id) {
-        Formation formation = getFormationById(id);
+        Formation formation = loadFormation(id);
         // Consider checking for related entities that might be affected by deletion
         formationRepository.delete(formation);
+        formationCatalogue.refreshAfterCommit();
     }
 
     @Transactional(readOnly = true)
@@ -113,6 +151,12 @@ public class FormationService {
         return staffRepository.findByFormations(formation);
     }
     
+    // Managed entity for updates, never the shared catalogue copy
+    private Formation loadFormation(Long id) {
+        return formationRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Formation not found with id: " + id));
+    }
+
     private void validateFormation(Formation formation) {
         if (formation.getName() == null || formation.getName().trim().isEmpty()) {
             throw new IllegalArgumentException("Formation name cannot be empty");
@@ -0,0 +1,179 @@
+package com.uchk.university.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uchk.university.config.AsyncConfig;
+import com.uchk.university.dto.BroadcastStatus;
+import com.uchk.university.dto.NotificationBroadcastRequest;
+import com.uchk.university.exception.ResourceNotFoundException;
+import com.uchk.university.repository.FormationRepository;
+import com.uchk.university.repository.StudentRepository;
+import com.uchk.university.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers one notification to many users off the request thread.
+ * Recipients are resolved as a list of user ids, then inserted with JDBC batches of
+ * {@code chunk-size} rows, each chunk in its own short transaction, so no transaction stays
+ * open for the whole broadcast. Progress is kept in memory on the node running the broadcast;
+ * a broadcast interrupted by a restart is not resumed.
+ */
+@Component
+@Slf4j
+public class NotificationBroadcaster {
+    private static final String INSERT_SQL =
+            "INSERT INTO notifications (message, type, is_read, created_at, user_id) VALUES (?, ?, false, ?, ?)";
+
+    private final UserRepository userRepository;
+    private final StudentRepository studentRepository;
+    private final FormationRepository formationRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UnreadNotificationCounter unreadCounter;
+    private final NotificationStreamService notificationStream;
+    private final TaskExecutor broadcastExecutor;
+    private final int chunkSize;
+    private final Cache<String, Broadcast> broadcasts;
+
+    public NotificationBroadcaster(UserRepository userRepository,
+                                   StudentRepository studentRepository,
+                                   FormationRepository formationRepository,
+                                   JdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate,
+                                   UnreadNotificationCounter unreadCounter,
+                                   NotificationStreamService notificationStream,
+                                   @Qualifier(AsyncConfig.NOTIFICATION_BROADCAST_EXECUTOR) TaskExecutor broadcastExecutor,
+                                   @Value("${notification.broadcast.chunk-size:1000}") int chunkSize,
+                                   @Value("${notification.broadcast.status-retention:PT24H}") Duration statusRetention) {
+        this.userRepository = userRepository;
+        this.studentRepository = studentRepository;
+        this.formationRepository = formationRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.unreadCounter = unreadCounter;
+        this.notificationStream = notificationStream;
+        this.broadcastExecutor = broadcastExecutor;
+        this.chunkSize = chunkSize;
+        this.broadcasts = Caffeine.newBuilder()
+                .expireAfterWrite(statusRetention)
+                .maximumSize(1000)
+                .build();
+    }
+
+    /**
+     * Validates the target and queues the broadcast.
+     *
+     * @throws IllegalArgumentException if not exactly one of role and formation is given
+     * @throws ResourceNotFoundException if the formation does not exist
+     * @throws TaskRejectedException if too many broadcasts are queued
+     */
+    public BroadcastStatus start(NotificationBroadcastRequest request) {
+        if ((request.getRole() == null) == (request.getFormationId() == null)) {
+            throw new IllegalArgumentException("Exactly one of role and formationId is required");
+        }
+        if (request.getFormationId() != null && !formationRepository.existsById(request.getFormationId())) {
+            throw new ResourceNotFoundException("Formation not found with id: " + request.getFormationId());
+        }
+
+        Broadcast broadcast = new Broadcast(UUID.randomUUID().toString());
+        broadcasts.put(broadcast.id, broadcast);
+        try {
+            broadcastExecutor.execute(() -> run(broadcast, request));
+        } catch (TaskRejectedException e) {
+            broadcasts.invalidate(broadcast.id);
+            throw e;
+        }
+        return broadcast.snapshot();
+    }
+
+    /**
+     * @return the broadcast's progress, or null if unknown on this node or expired
+     */
+    public BroadcastStatus getStatus(String id) {
+        Broadcast broadcast = broadcasts.getIfPresent(id);
+        return broadcast != null ? broadcast.snapshot() : null;
+    }
+
+    private void run(Broadcast broadcast, NotificationBroadcastRequest request) {
+        broadcast.startedAt = LocalDateTime.now();
+        broadcast.state = BroadcastStatus.State.RUNNING;
+        try {
+            List<Long> recipients = request.getRole() != null
+                    ? userRepository.findActiveIdsByRole(request.getRole())
+                    : studentRepository.findActiveUserIdsByFormationId(request.getFormationId());
+            broadcast.total = recipients.size();
+
+            // Every copy shares the same creation time, so recipients see one announcement
+            Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+            String type = request.getType().name();
+            for (int from = 0; from < recipients.size(); from += chunkSize) {
+                List<Long> chunk = recipients.subList(from, Math.min(from + chunkSize, recipients.size()));
+                transactionTemplate.executeWithoutResult(status ->
+                        jdbcTemplate.batchUpdate(INSERT_SQL, chunk, chunk.size(), (statement, userId) -> {
+                            statement.setString(1, request.getMessage());
+                            statement.setString(2, type);
+                            statement.setTimestamp(3, createdAt);
+                            statement.setLong(4, userId);
+                        }));
+                broadcast.delivered.addAndGet(chunk.size());
+                // Committed: update counters in memory and connected clients
+                for (Long userId : chunk) {
+                    unreadCounter.increment(userId);
+                    notificationStream.publishUnreadCount(userId);
+                }
+            }
+            broadcast.completedAt = LocalDateTime.now();
+            broadcast.state = BroadcastStatus.State.COMPLETED;
+            log.info("Broadcast {} delivered to {} users in {} ms", broadcast.id, broadcast.total,
+                    Duration.between(broadcast.startedAt, LocalDateTime.now()).toMillis());
+        } catch (Exception e) {
+            broadcast.error = e.getMessage();
+            broadcast.completedAt = LocalDateTime.now();
+            broadcast.state = BroadcastStatus.State.FAILED;
+            log.error("Broadcast {} failed after {} of {} users: {}", broadcast.id, broadcast.delivered.get(),
+                    broadcast.total, e.getMessage());
+        }
+    }
+
+    private static final class Broadcast {
+        private final String id;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final AtomicInteger delivered = new AtomicInteger();
+        private volatile BroadcastStatus.State state = BroadcastStatus.State.QUEUED;
+        private volatile Integer total;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime completedAt;
+        private volatile String error;
+
+        private Broadcast(String id) {
+            this.id = id;
+        }
+
+        private BroadcastStatus snapshot() {
+            return BroadcastStatus.builder()
+                    .id(id)
+                    .state(state)
+                    .total(total)
+                    .delivered(delivered.get())
+                    .createdAt(createdAt)
+                    .startedAt(startedAt)
+                    .completedAt(completedAt)
+                    .error(error)
+                    .build();
+        }
+    }
+}
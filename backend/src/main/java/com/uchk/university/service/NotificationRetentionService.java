@@ -0,0 +1,178 @@
+package com.uchk.university.service;
+
+import com.uchk.university.repository.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.IntSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Removes read notifications older than {@code max-age} from the live table, either moving them
+ * to the monthly partitions of notifications_archive (ARCHIVE) or deleting them (DELETE).
+ * Runs off-peak in batches of {@code batch-size} rows, each its own statement and transaction,
+ * pausing {@code batch-pause} between batches and stopping after {@code max-run-time}; whatever
+ * is left is picked up by the next run. Archive partitions older than {@code archive-max-age}
+ * are dropped whole. Unread notifications are kept regardless of age.
+ */
+@Service
+@Slf4j
+public class NotificationRetentionService {
+    public enum Mode {
+        ARCHIVE,
+        DELETE
+    }
+
+    private static final String ARCHIVE_TABLE = "notifications_archive";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final Pattern PARTITION_NAME = Pattern.compile(ARCHIVE_TABLE + "_(\\d{4})_(\\d{2})");
+
+    private final NotificationRepository notificationRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Mode mode;
+    private final Duration maxAge;
+    private final Duration archiveMaxAge;
+    private final int batchSize;
+    private final Duration batchPause;
+    private final Duration maxRunTime;
+    private final Counter archivedRows;
+    private final Counter deletedRows;
+    private final Counter droppedPartitions;
+    private final Timer runTimer;
+
+    public NotificationRetentionService(NotificationRepository notificationRepository,
+                                        JdbcTemplate jdbcTemplate,
+                                        @Value("${notification.retention.mode:ARCHIVE}") Mode mode,
+                                        @Value("${notification.retention.max-age:P90D}") Duration maxAge,
+                                        @Value("${notification.retention.archive-max-age:P730D}") Duration archiveMaxAge,
+                                        @Value("${notification.retention.batch-size:1000}") int batchSize,
+                                        @Value("${notification.retention.batch-pause:PT0.2S}") Duration batchPause,
+                                        @Value("${notification.retention.max-run-time:PT1H}") Duration maxRunTime,
+                                        MeterRegistry meterRegistry) {
+        this.notificationRepository = notificationRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.mode = mode;
+        this.maxAge = maxAge;
+        this.archiveMaxAge = archiveMaxAge;
+        this.batchSize = batchSize;
+        this.batchPause = batchPause;
+        this.maxRunTime = maxRunTime;
+        this.archivedRows = Counter.builder("notifications.retention.rows")
+                .description("Notifications removed from the live table by the retention job")
+                .tag("action", "archived")
+                .register(meterRegistry);
+        this.deletedRows = Counter.builder("notifications.retention.rows")
+                .description("Notifications removed from the live table by the retention job")
+                .tag("action", "deleted")
+                .register(meterRegistry);
+        this.droppedPartitions = Counter.builder("notifications.retention.partitions.dropped")
+                .description("Expired archive partitions dropped")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("notifications.retention.run")
+                .description("Duration of a notification retention run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${notification.retention.cron:0 0 3 * * *}")
+    public void purge() {
+        runTimer.record(() -> {
+            try {
+                LocalDateTime cutoff = LocalDateTime.now().minus(maxAge);
+                long removed = mode == Mode.ARCHIVE ? archive(cutoff) : delete(cutoff);
+                int dropped = mode == Mode.ARCHIVE ? dropExpiredPartitions() : 0;
+                if (removed > 0 || dropped > 0) {
+                    log.info("Notification retention ({}): {} notifications before {}, {} archive partitions dropped",
+                            mode, removed, cutoff, dropped);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("Notification retention failed: {}", e.getMessage());
+            }
+        });
+    }
+
+    private long archive(LocalDateTime cutoff) throws InterruptedException {
+        LocalDateTime oldest = notificationRepository.findOldestReadBefore(cutoff);
+        if (oldest == null) {
+            return 0;
+        }
+        // Only rows from the oldest month found here have a partition; older rows read meanwhile
+        // are moved by the next run
+        YearMonth first = YearMonth.from(oldest);
+        for (YearMonth month = first; !month.isAfter(YearMonth.from(cutoff)); month = month.plusMonths(1)) {
+            createPartition(month);
+        }
+        LocalDateTime from = first.atDay(1).atStartOfDay();
+        LocalDateTime archivedAt = LocalDateTime.now();
+        return runBatches(() -> notificationRepository.archiveReadBetween(from, cutoff, batchSize, archivedAt),
+                archivedRows);
+    }
+
+    private long delete(LocalDateTime cutoff) throws InterruptedException {
+        return runBatches(() -> notificationRepository.deleteReadBefore(cutoff, batchSize), deletedRows);
+    }
+
+    private long runBatches(IntSupplier batch, Counter rows) throws InterruptedException {
+        long deadline = System.nanoTime() + maxRunTime.toNanos();
+        long total = 0;
+        while (true) {
+            int count = batch.getAsInt();
+            rows.increment(count);
+            total += count;
+            if (count < batchSize) {
+                return total;
+            }
+            if (System.nanoTime() > deadline) {
+                log.info("Notification retention stopped after {}, resuming next run", maxRunTime);
+                return total;
+            }
+            // Leaves room for regular traffic between batches
+            Thread.sleep(batchPause.toMillis());
+        }
+    }
+
+    private void createPartition(YearMonth month) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month)
+                + " PARTITION OF " + ARCHIVE_TABLE
+                + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+    }
+
+    private int dropExpiredPartitions() {
+        YearMonth expired = YearMonth.from(LocalDateTime.now().minus(archiveMaxAge));
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i "
+                        + "JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "JOIN pg_class p ON p.oid = i.inhparent "
+                        + "WHERE p.relname = ?",
+                String.class, ARCHIVE_TABLE);
+        int dropped = 0;
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            // A partition goes once all of its month is past the archive retention age
+            if (matcher.matches() && YearMonth.of(Integer.parseInt(matcher.group(1)),
+                    Integer.parseInt(matcher.group(2))).isBefore(expired)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                droppedPartitions.increment();
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    private static String partitionName(YearMonth month) {
+        return ARCHIVE_TABLE + "_" + month.format(PARTITION_SUFFIX);
+    }
+}
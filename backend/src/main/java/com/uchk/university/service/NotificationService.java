@@ -1,12 +1,49 @@
 package com.uchk.university.service;
 
+import com.uchk.university.dto.BroadcastStatus;
+import com.uchk.university.dto.CursorPage;
+import com.uchk.university.dto.NotificationBroadcastRequest;
 import com.uchk.university.dto.NotificationDto;
+import com.uchk.university.entity.NotificationType;
+import com.uchk.university.entity.User;
+import java.util.Collection;
 import java.util.List;
 
 public interface NotificationService {
-    List<NotificationDto> getRecentNotificationsForCurrentUser(int limit);    int getUnreadCount();
+    List<NotificationDto> getRecentNotificationsForCurrentUser(int limit);
+    /**
+     * Current user's notifications, newest first, one keyset page at a time.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    CursorPage<NotificationDto> getNotificationsForCurrentUser(String cursor, int limit);
+    int getUnreadCount();
     NotificationDto getNotification(Long id);
     NotificationDto markAsRead(Long id);
     void markAllAsRead();
+    /**
+     * Marks the given notifications of the current user as read; ids of other users are ignored.
+     *
+     * @return the number of notifications that changed
+     */
+    int markAsRead(Collection<Long> ids);
+    /**
+     * Deletes the given notifications of the current user; ids of other users are ignored.
+     *
+     * @return the number of notifications deleted
+     */
+    int deleteNotifications(Collection<Long> ids);
     void deleteNotification(Long id);
+    NotificationDto createNotification(User user, String message, NotificationType type);
+    /**
+     * Queues one notification for every active user with the request's role, or every active
+     * student of its formation, and returns immediately.
+     *
+     * @throws IllegalArgumentException if not exactly one target is given
+     */
+    BroadcastStatus broadcast(NotificationBroadcastRequest request);
+    /**
+     * @return the broadcast's progress, or null if unknown
+     */
+    BroadcastStatus getBroadcastStatus(String broadcastId);
 }                                                                                                                 
\ No newline at end of file
@@ -1,34 +1,47 @@
 package com.uchk.university.service;
 
+import com.uchk.university.dto.BroadcastStatus;
+import com.uchk.university.dto.CursorPage;
+import com.uchk.university.dto.KeysetCursor;
+import com.uchk.university.dto.NotificationBroadcastRequest;
 import com.uchk.university.dto.NotificationDto;
 import com.uchk.university.entity.Notification;
+import com.uchk.university.entity.NotificationType;
+import com.uchk.university.entity.User;
 import com.uchk.university.repository.NotificationRepository;
 import com.uchk.university.security.SecurityUtils;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class NotificationServiceImpl implements NotificationService {
     private final NotificationRepository notificationRepository;
+    private final UserService userService;
+    private final UnreadNotificationCounter unreadCounter;
+    private final NotificationStreamService notificationStream;
+    private final NotificationBroadcaster notificationBroadcaster;
     private static final Logger logger = LoggerFactory.getLogger(NotificationServiceImpl.class);
 
     @Override
-    @Transactional(readOnly = true)
     public int getUnreadCount() {
         String username = SecurityUtils.getCurrentUsername();
         if (username == null) {
             logger.error("Unable to retrieve username for unread count");
             return 0;
         }
-        return notificationRepository.countUnreadByUsername(username);
+        // Served from memory; no transaction is opened for the poll
+        Long userId = userService.getUserByUsername(username).getId();
+        return (int) Math.min(Integer.MAX_VALUE, unreadCounter.get(userId));
     }
 
     @Override
@@ -36,7 +49,11 @@ public class NotificationServiceImpl implements NotificationService {
     public NotificationDto markAsRead(Long id) {
         Notification notification = notificationRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Notification not found"));
-        notification.setRead(true);
+        if (!notification.isRead()) {
+            notification.setRead(true);
+            unreadCounter.add(notification.getUser().getId(), -1);
+            notificationStream.publishUnreadCount(notification.getUser().getId());
+        }
         return convertToDTO(notificationRepository.save(notification));
     }
 
@@ -48,15 +65,83 @@ public class NotificationServiceImpl implements NotificationService {
             logger.error("Unable to retrieve username for mark all as read");
             return;
         }
-        List<Notification> notifications = notificationRepository.findByUserUsername(username);
-        notifications.forEach(n -> n.setRead(true));
-        notificationRepository.saveAll(notifications);
+        Long userId = userService.getUserByUsername(username).getId();
+        int updated = notificationRepository.markAllAsReadByUserId(userId);
+        unreadCounter.add(userId, -updated);
+        notificationStream.publishUnreadCount(userId);
+    }
+
+    @Override
+    @Transactional
+    public int markAsRead(Collection<Long> ids) {
+        String username = SecurityUtils.getCurrentUsername();
+        if (username == null) {
+            logger.error("Unable to retrieve username for batch mark as read");
+            return 0;
+        }
+        Long userId = userService.getUserByUsername(username).getId();
+        int updated = notificationRepository.markAsReadByIdsForUser(ids, userId);
+        unreadCounter.add(userId, -updated);
+        if (updated > 0) {
+            notificationStream.publishUnreadCount(userId);
+        }
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public int deleteNotifications(Collection<Long> ids) {
+        String username = SecurityUtils.getCurrentUsername();
+        if (username == null) {
+            logger.error("Unable to retrieve username for batch delete");
+            return 0;
+        }
+        Long userId = userService.getUserByUsername(username).getId();
+        long unread = notificationRepository.countUnreadByIdsForUser(ids, userId);
+        int deleted = notificationRepository.deleteByIdsForUser(ids, userId);
+        unreadCounter.add(userId, -unread);
+        if (unread > 0) {
+            notificationStream.publishUnreadCount(userId);
+        }
+        return deleted;
     }
 
     @Override
     @Transactional
     public void deleteNotification(Long id) {
-        notificationRepository.deleteById(id);
+        notificationRepository.findById(id).ifPresent(notification -> {
+            notificationRepository.delete(notification);
+            if (!notification.isRead()) {
+                unreadCounter.add(notification.getUser().getId(), -1);
+                notificationStream.publishUnreadCount(notification.getUser().getId());
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public NotificationDto createNotification(User user, String message, NotificationType type) {
+        Notification notification = Notification.builder()
+                .user(user)
+                .message(message)
+                .type(type)
+                .read(false)
+                .createdAt(LocalDateTime.now())
+                .build();
+        NotificationDto dto = convertToDTO(notificationRepository.save(notification));
+        unreadCounter.increment(user.getId());
+        notificationStream.publishNotification(user.getId(), dto);
+        return dto;
+    }
+
+    @Override
+    public BroadcastStatus broadcast(NotificationBroadcastRequest request) {
+        return notificationBroadcaster.start(request);
+    }
+
+    @Override
+    public BroadcastStatus getBroadcastStatus(String broadcastId) {
+        return notificationBroadcaster.getStatus(broadcastId);
     }
 
     @Override
@@ -75,12 +160,31 @@ public class NotificationServiceImpl implements NotificationService {
             logger.error("Unable to retrieve username for notifications");
             return Collections.emptyList();
         }
-        return notificationRepository.findByUserUsername(username)
-                .stream()
-                .sorted((n1, n2) -> n2.getCreatedAt().compareTo(n1.getCreatedAt())) // Sort by most recent first
-                .map(this::convertToDTO)
-                .limit(limit)
-                .collect(Collectors.toList());
+        Long userId = userService.getUserByUsername(username).getId();
+        return notificationRepository.findRecentByUserId(userId, PageRequest.of(0, limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<NotificationDto> getNotificationsForCurrentUser(String cursor, int limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        String username = SecurityUtils.getCurrentUsername();
+        if (username == null) {
+            logger.error("Unable to retrieve username for notifications");
+            return new CursorPage<>(Collections.emptyList(), null);
+        }
+        Long userId = userService.getUserByUsername(username).getId();
+        // One extra row tells whether another page follows
+        List<NotificationDto> rows = notificationRepository.findByUserIdAfter(
+                userId, after.getCreatedAt(), after.getId(), PageRequest.of(0, limit + 1));
+
+        List<NotificationDto> items = rows.size() > limit ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            NotificationDto last = rows.get(limit - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(items, nextCursor);
     }
 
     private NotificationDto convertToDTO(Notification notification) {
@@ -90,7 +194,6 @@ public class NotificationServiceImpl implements NotificationService {
         dto.setType(notification.getType());
         dto.setRead(notification.isRead());
         dto.setCreatedAt(notification.getCreatedAt());
-        dto.setUser(notification.getUser());
         return dto;
     }
 }
@@ -0,0 +1,195 @@
+package com.uchk.university.service;
+
+import com.uchk.university.config.AsyncConfig;
+import com.uchk.university.dto.NotificationDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pushes notification events to connected browsers over server-sent events.
+ * Streams are servlet async requests: an idle connection holds no thread, only its emitter.
+ * Connections are capped per node and per user (the oldest stream of a user is closed when
+ * a new one exceeds the cap). Events are written on the push executor after the producing
+ * transaction commits; when that executor is saturated they are dropped, and clients catch up
+ * with the unread count sent on every (re)connect.
+ *
+ * Events: "notification" (a NotificationDto) when one is created, and "unread-count"
+ * ({"count": n}) on connect and whenever the user's unread count changes.
+ */
+@Service
+@Slf4j
+public class NotificationStreamService {
+    public static final String NOTIFICATION_EVENT = "notification";
+    public static final String UNREAD_COUNT_EVENT = "unread-count";
+
+    private final ConcurrentMap<Long, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final UnreadNotificationCounter unreadCounter;
+    private final TaskExecutor pushExecutor;
+    private final int maxConnections;
+    private final int maxConnectionsPerUser;
+    private final Duration timeout;
+
+    public NotificationStreamService(UnreadNotificationCounter unreadCounter,
+                                     @Qualifier(AsyncConfig.NOTIFICATION_PUSH_EXECUTOR) TaskExecutor pushExecutor,
+                                     @Value("${notification.stream.max-connections:5000}") int maxConnections,
+                                     @Value("${notification.stream.max-connections-per-user:5}") int maxConnectionsPerUser,
+                                     @Value("${notification.stream.timeout:PT30M}") Duration timeout,
+                                     MeterRegistry meterRegistry) {
+        this.unreadCounter = unreadCounter;
+        this.pushExecutor = pushExecutor;
+        this.maxConnections = maxConnections;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+        this.timeout = timeout;
+        meterRegistry.gauge("notifications.stream.connections", connections);
+    }
+
+    /**
+     * Opens a stream for the user and sends the current unread count.
+     *
+     * @return the emitter, or null if this node already holds the maximum number of streams
+     */
+    public SseEmitter connect(Long userId) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        SseEmitter[] evicted = new SseEmitter[1];
+        emitters.compute(userId, (id, userEmitters) -> {
+            List<SseEmitter> list = userEmitters != null ? userEmitters : new CopyOnWriteArrayList<>();
+            list.add(emitter);
+            if (list.size() > maxConnectionsPerUser) {
+                evicted[0] = list.get(0);
+            }
+            return list;
+        });
+        // Completion is signalled outside compute(): callbacks update the same map entry
+        if (evicted[0] != null) {
+            remove(userId, evicted[0]);
+            evicted[0].complete();
+        }
+
+        Runnable removal = () -> remove(userId, emitter);
+        emitter.onCompletion(removal);
+        // Completing on timeout ends the stream normally instead of raising AsyncRequestTimeoutException;
+        // EventSource then reconnects
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> removal.run());
+
+        send(userId, emitter, unreadCountEvent(userId).build());
+        return emitter;
+    }
+
+    /**
+     * Sends a newly created notification, then the updated unread count, once the current
+     * transaction commits.
+     */
+    public void publishNotification(Long userId, NotificationDto notification) {
+        TransactionCallbacks.afterCommit(() ->
+                push(userId, () -> SseEmitter.event().name(NOTIFICATION_EVENT).data(notification)));
+        publishUnreadCount(userId);
+    }
+
+    /**
+     * Sends the user's unread count once the current transaction commits.
+     */
+    public void publishUnreadCount(Long userId) {
+        TransactionCallbacks.afterCommit(() -> push(userId, () -> unreadCountEvent(userId)));
+    }
+
+    /**
+     * Keeps idle streams open through proxies and detects clients that went away without
+     * closing the connection.
+     */
+    @Scheduled(fixedDelayString = "${notification.stream.heartbeat-interval:30000}")
+    public void heartbeat() {
+        if (emitters.isEmpty()) {
+            return;
+        }
+        Set<DataWithMediaType> ping = SseEmitter.event().comment("heartbeat").build();
+        try {
+            pushExecutor.execute(() -> emitters.forEach((userId, userEmitters) -> {
+                for (SseEmitter emitter : userEmitters) {
+                    send(userId, emitter, ping);
+                }
+            }));
+        } catch (TaskRejectedException e) {
+            log.debug("Notification push queue full, heartbeat skipped");
+        }
+    }
+
+    @PreDestroy
+    public void closeAll() {
+        emitters.values().forEach(userEmitters -> userEmitters.forEach(SseEmitter::complete));
+    }
+
+    private void push(Long userId, Supplier<SseEventBuilder> event) {
+        if (!emitters.containsKey(userId)) {
+            return;
+        }
+        try {
+            pushExecutor.execute(() -> {
+                List<SseEmitter> userEmitters = emitters.get(userId);
+                if (userEmitters == null) {
+                    return;
+                }
+                // Built once: a builder must not be rendered twice
+                Set<DataWithMediaType> data = event.get().build();
+                for (SseEmitter emitter : userEmitters) {
+                    send(userId, emitter, data);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            log.debug("Notification push queue full, event for user {} dropped", userId);
+        }
+    }
+
+    private void send(Long userId, SseEmitter emitter, Set<DataWithMediaType> data) {
+        try {
+            emitter.send(data);
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the stream already completed
+            remove(userId, emitter);
+            try {
+                emitter.completeWithError(e);
+            } catch (IllegalStateException ignored) {
+                // Already completed
+            }
+        }
+    }
+
+    private SseEventBuilder unreadCountEvent(Long userId) {
+        return SseEmitter.event().name(UNREAD_COUNT_EVENT).data(Map.of("count", unreadCounter.get(userId)));
+    }
+
+    private void remove(Long userId, SseEmitter emitter) {
+        emitters.computeIfPresent(userId, (id, userEmitters) -> {
+            if (userEmitters.remove(emitter)) {
+                connections.decrementAndGet();
+            }
+            return userEmitters.isEmpty() ? null : userEmitters;
+        });
+    }
+}
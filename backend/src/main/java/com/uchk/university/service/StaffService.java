@@ -5,6 +5,7 @@ import com.uchk.university.entity.Staff;
 import com.uchk.university.entity.User;
 import com.uchk.university.entity.Formation;
 import com.uchk.university.dto.StaffDto;
+import com.uchk.university.dto.StaffSummary;
 import com.uchk.university.exception.ResourceNotFoundException;
 import com.uchk.university.repository.StaffRepository;
 import com.uchk.university.service.UserService;
@@ -12,6 +13,7 @@ import com.uchk.university.repository.FormationRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 import java.util.List;
 import java.util.Optional;
@@ -22,6 +24,16 @@ public class StaffService {
     private final StaffRepository staffRepository;
     private final UserService userService;
     private final FormationRepository formationRepository;
+    private final DirectoryExporter directoryExporter;
+
+    private static final List<DirectoryExporter.Column<StaffSummary>> EXPORT_COLUMNS = List.of(
+            new DirectoryExporter.Column<>("staffId", StaffSummary::getStaffId),
+            new DirectoryExporter.Column<>("lastName", StaffSummary::getLastName),
+            new DirectoryExporter.Column<>("firstName", StaffSummary::getFirstName),
+            new DirectoryExporter.Column<>("email", StaffSummary::getEmail),
+            new DirectoryExporter.Column<>("position", StaffSummary::getPosition),
+            new DirectoryExporter.Column<>("department", StaffSummary::getDepartment),
+            new DirectoryExporter.Column<>("contactInfo", StaffSummary::getContactInfo));
 
     @Transactional
     public Staff createStaff(StaffDto staffDto) {
@@ -56,6 +68,18 @@ public class StaffService {
                 .orElseThrow(() -> new ResourceNotFoundException("Staff not found with staffId: " + staffId));
     }
 
+    /**
+     * All staff, optionally of one department and/or position, by name, written out as it is read.
+     *
+     * @throws org.springframework.core.task.TaskRejectedException if too many exports are in progress
+     */
+    public DirectoryExporter.Export exportStaff(String department, String position, DirectoryExporter.Format format) {
+        String departmentFilter = StringUtils.hasText(department) ? department.trim() : null;
+        String positionFilter = StringUtils.hasText(position) ? position.trim() : null;
+        return directoryExporter.fromCursor("staff", format, EXPORT_COLUMNS,
+                () -> staffRepository.streamSummaries(departmentFilter, positionFilter));
+    }
+
     public List<Staff> getAllStaff() {
         return staffRepository.findAll();
     }
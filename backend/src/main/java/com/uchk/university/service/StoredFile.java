@@ -0,0 +1,17 @@
+package com.uchk.university.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Result of storing an upload: the relative storage path plus what was learned
+ * while streaming it to disk.
+ */
+@Getter
+@AllArgsConstructor
+public class StoredFile {
+    private final String path;
+    private final String sha256;
+    private final long size;
+    private final String contentType;
+}
@@ -0,0 +1,194 @@
+package com.uchk.university.service;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reads student import files one row at a time: CSV (UTF-8, comma or semicolon separated) or the
+ * first sheet of an XLSX workbook, read with POI's streaming (SAX) API so the sheet is never
+ * built in memory. The first row names the columns, matched ignoring case; values are trimmed
+ * and dates come out as ISO (yyyy-MM-dd).
+ */
+final class StudentImportReader {
+    enum Format {
+        CSV,
+        XLSX;
+
+        /**
+         * @throws IllegalArgumentException for any other extension
+         */
+        static Format of(String fileName) {
+            String name = fileName != null ? fileName.toLowerCase(Locale.ROOT) : "";
+            if (name.endsWith(".csv")) {
+                return CSV;
+            }
+            if (name.endsWith(".xlsx")) {
+                return XLSX;
+            }
+            throw new IllegalArgumentException("Only .csv and .xlsx files can be imported");
+        }
+    }
+
+    @FunctionalInterface
+    interface RowHandler {
+        /**
+         * @param rowNumber row in the file, counting the header as row 1
+         * @param values    by lower-case column name; blank cells are absent
+         */
+        void row(int rowNumber, Map<String, String> values);
+    }
+
+    private StudentImportReader() {
+    }
+
+    static void read(Path file, Format format, RowHandler handler) throws IOException {
+        if (format == Format.CSV) {
+            readCsv(file, handler);
+        } else {
+            readXlsx(file, handler);
+        }
+    }
+
+    private static void readCsv(Path file, RowHandler handler) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            // Byte order mark written by Excel's "CSV UTF-8"
+            reader.mark(1);
+            if (reader.read() != '\uFEFF') {
+                reader.reset();
+            }
+            // Spreadsheets in French locales export with semicolons
+            reader.mark(64 * 1024);
+            String header = reader.readLine();
+            reader.reset();
+            char delimiter = header != null && header.indexOf(';') >= 0 && header.indexOf(',') < 0 ? ';' : ',';
+
+            CSVFormat csv = CSVFormat.DEFAULT.builder()
+                    .setDelimiter(delimiter)
+                    .setHeader()
+                    .setSkipHeaderRecord(true)
+                    .setTrim(true)
+                    .setIgnoreEmptyLines(true)
+                    .build();
+            try (CSVParser parser = csv.parse(reader)) {
+                Map<String, Integer> columns = parser.getHeaderMap();
+                for (CSVRecord record : parser) {
+                    Map<String, String> values = new HashMap<>();
+                    columns.forEach((name, index) -> {
+                        if (index < record.size() && !record.get(index).isEmpty()) {
+                            values.put(name.trim().toLowerCase(Locale.ROOT), record.get(index));
+                        }
+                    });
+                    // Record numbers count the header record
+                    handler.row((int) record.getRecordNumber() + 1, values);
+                }
+            }
+        }
+    }
+
+    private static void readXlsx(Path file, RowHandler handler) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), null,
+                        new ReadOnlySharedStringsTable(pkg), new SheetRows(handler), new IsoDateFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Unreadable XLSX file: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Collects the cells of each row; the first non-blank row is the header.
+     */
+    private static final class SheetRows implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final RowHandler handler;
+        private final Map<Integer, String> cells = new TreeMap<>();
+        private Map<Integer, String> header;
+
+        private SheetRows(RowHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            String value = formattedValue != null ? formattedValue.trim() : "";
+            if (!value.isEmpty()) {
+                cells.put((int) new CellReference(cellReference).getCol(), value);
+            }
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (cells.isEmpty()) {
+                return;
+            }
+            if (header == null) {
+                header = new HashMap<>();
+                cells.forEach((column, name) -> header.put(column, name.toLowerCase(Locale.ROOT)));
+                return;
+            }
+            Map<String, String> values = new HashMap<>();
+            cells.forEach((column, value) -> {
+                String name = header.get(column);
+                if (name != null) {
+                    values.put(name, value);
+                }
+            });
+            // rowNum is 0-based
+            handler.row(rowNum + 1, values);
+        }
+    }
+
+    /**
+     * Formats cells like Excel shows them, except dates, which come out as ISO dates whatever
+     * their display format.
+     */
+    private static final class IsoDateFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString, boolean use1904Windowing) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getLocalDateTime(value, use1904Windowing).toLocalDate().toString();
+            }
+            return super.formatRawCellContents(value, formatIndex, formatString, use1904Windowing);
+        }
+    }
+}
@@ -0,0 +1,475 @@
+package com.uchk.university.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uchk.university.config.AsyncConfig;
+import com.uchk.university.dto.StudentDto;
+import com.uchk.university.dto.StudentImportStatus;
+import com.uchk.university.entity.Formation;
+import com.uchk.university.entity.Role;
+import com.uchk.university.exception.PasswordHashingUnavailableException;
+import com.uchk.university.repository.FormationRepository;
+import com.uchk.university.repository.StudentRepository;
+import com.uchk.university.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Creates students in bulk from a CSV or XLSX file, off the request thread.
+ * Every row is checked with the StudentDto constraints. Duplicates within the file and against
+ * the database (username, email, student id) and unknown formations are then found with set
+ * queries rather than per row. Valid rows are written in chunks of {@code chunk-size}: the
+ * chunk's passwords are hashed in parallel, then its users and students are inserted with JDBC
+ * batches in one transaction. A chunk that still hits a unique constraint (someone registered
+ * meanwhile) is retried row by row, so only the conflicting rows are rejected.
+ * Progress and the per-row error report are kept in memory on the node running the import.
+ */
+@Component
+@Slf4j
+public class StudentImporter {
+    private static final String USER_INSERT = "INSERT INTO users (username, password, email, role, active, "
+            + "token_version, created_at, updated_at) VALUES (?, ?, ?, ?, true, 0, ?, ?)";
+    private static final String STUDENT_INSERT = "INSERT INTO students (user_id, student_id, first_name, last_name, "
+            + "birth_date, formation_id, promo, start_year, end_year) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // Values per IN list in the duplicate checks
+    private static final int LOOKUP_SLICE = 1000;
+    private static final int HASHING_ATTEMPTS = 3;
+
+    private final UserRepository userRepository;
+    private final StudentRepository studentRepository;
+    private final FormationRepository formationRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final TaskExecutor importExecutor;
+    private final TaskExecutor hashingExecutor;
+    private final int chunkSize;
+    private final int maxRows;
+    private final Cache<String, Import> imports;
+    private final Counter importedRows;
+    private final Counter rejectedRows;
+
+    public StudentImporter(UserRepository userRepository,
+                           StudentRepository studentRepository,
+                           FormationRepository formationRepository,
+                           JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           PasswordEncoder passwordEncoder,
+                           Validator validator,
+                           @Qualifier(AsyncConfig.STUDENT_IMPORT_EXECUTOR) TaskExecutor importExecutor,
+                           @Qualifier(AsyncConfig.STUDENT_IMPORT_HASHING_EXECUTOR) TaskExecutor hashingExecutor,
+                           @Value("${student.import.chunk-size:500}") int chunkSize,
+                           @Value("${student.import.max-rows:20000}") int maxRows,
+                           @Value("${student.import.status-retention:PT24H}") Duration statusRetention,
+                           MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.studentRepository = studentRepository;
+        this.formationRepository = formationRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.importExecutor = importExecutor;
+        this.hashingExecutor = hashingExecutor;
+        this.chunkSize = chunkSize;
+        this.maxRows = maxRows;
+        this.imports = Caffeine.newBuilder()
+                .expireAfterWrite(statusRetention)
+                .maximumSize(100)
+                .build();
+        this.importedRows = Counter.builder("students.import.rows")
+                .description("Rows of bulk student imports")
+                .tag("result", "imported")
+                .register(meterRegistry);
+        this.rejectedRows = Counter.builder("students.import.rows")
+                .description("Rows of bulk student imports")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Copies the upload and queues the import.
+     *
+     * @throws IllegalArgumentException if the file is empty or neither .csv nor .xlsx
+     * @throws TaskRejectedException if too many imports are queued
+     */
+    public StudentImportStatus start(MultipartFile file) throws IOException {
+        StudentImportReader.Format format = StudentImportReader.Format.of(file.getOriginalFilename());
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("The file is empty");
+        }
+        // The multipart upload is deleted when the request completes
+        Path copy = Files.createTempFile("student-import-", "." + format.name().toLowerCase(Locale.ROOT));
+        file.transferTo(copy);
+
+        Import job = new Import(UUID.randomUUID().toString(), file.getOriginalFilename());
+        imports.put(job.id, job);
+        try {
+            importExecutor.execute(() -> {
+                try {
+                    run(job, copy, format);
+                } finally {
+                    deleteQuietly(copy);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            imports.invalidate(job.id);
+            deleteQuietly(copy);
+            throw e;
+        }
+        return job.snapshot();
+    }
+
+    /**
+     * @return the import's progress, or null if unknown on this node or expired
+     */
+    public StudentImportStatus getStatus(String id) {
+        Import job = imports.getIfPresent(id);
+        return job != null ? job.snapshot() : null;
+    }
+
+    private void run(Import job, Path file, StudentImportReader.Format format) {
+        job.startedAt = LocalDateTime.now();
+        job.state = StudentImportStatus.State.RUNNING;
+        try {
+            List<Row> rows = read(job, file, format);
+            List<Row> valid = rejectConflicts(job, rows);
+            for (int from = 0; from < valid.size(); from += chunkSize) {
+                write(job, valid.subList(from, Math.min(from + chunkSize, valid.size())));
+            }
+            job.completedAt = LocalDateTime.now();
+            job.state = StudentImportStatus.State.COMPLETED;
+            log.info("Student import {} ({}): {} of {} rows imported in {} ms", job.id, job.fileName,
+                    job.imported.get(), job.totalRows, Duration.between(job.startedAt, job.completedAt).toMillis());
+        } catch (Exception e) {
+            job.error = e.getMessage();
+            job.completedAt = LocalDateTime.now();
+            job.state = StudentImportStatus.State.FAILED;
+            log.error("Student import {} ({}) failed after {} rows imported: {}", job.id, job.fileName,
+                    job.imported.get(), e.getMessage());
+        }
+    }
+
+    private List<Row> read(Import job, Path file, StudentImportReader.Format format) throws IOException {
+        List<Row> rows = new ArrayList<>();
+        AtomicInteger count = new AtomicInteger();
+        StudentImportReader.read(file, format, (rowNumber, values) -> {
+            if (count.incrementAndGet() > maxRows) {
+                throw new IllegalStateException("The file has more than " + maxRows + " rows; split it");
+            }
+            Row row = parse(job, rowNumber, values);
+            if (row != null) {
+                rows.add(row);
+            }
+        });
+        job.totalRows = count.get();
+        return rows;
+    }
+
+    /**
+     * Builds the row's StudentDto from columns named like its fields, or rejects the row.
+     */
+    private Row parse(Import job, int rowNumber, Map<String, String> values) {
+        List<String> problems = new ArrayList<>();
+        LocalDate birthDate = parseValue(values, "birthDate", LocalDate::parse, problems);
+
+        StudentDto dto = new StudentDto();
+        dto.setUsername(values.get("username"));
+        dto.setPassword(values.get("password"));
+        dto.setEmail(values.get("email"));
+        dto.setStudentId(values.get("studentid"));
+        dto.setFirstName(values.get("firstname"));
+        dto.setLastName(values.get("lastname"));
+        dto.setBirthDate(birthDate != null
+                ? java.util.Date.from(birthDate.atStartOfDay(ZoneId.systemDefault()).toInstant())
+                : null);
+        dto.setFormationId(parseValue(values, "formationId", Long::valueOf, problems));
+        dto.setPromo(values.get("promo"));
+        dto.setStartYear(parseValue(values, "startYear", Integer::valueOf, problems));
+        dto.setEndYear(parseValue(values, "endYear", Integer::valueOf, problems));
+
+        validator.validate(dto).forEach(violation ->
+                problems.add(violation.getPropertyPath() + ": " + violation.getMessage()));
+        if (!problems.isEmpty()) {
+            Collections.sort(problems);
+            job.reject(rowNumber, String.join("; ", problems));
+            rejectedRows.increment();
+            return null;
+        }
+        return new Row(rowNumber, dto, birthDate);
+    }
+
+    private static <T> T parseValue(Map<String, String> values, String column, Function<String, T> parser,
+                                    List<String> problems) {
+        String value = values.get(column.toLowerCase(Locale.ROOT));
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parser.apply(value);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            problems.add(column + ": invalid value '" + value + "'");
+            return null;
+        }
+    }
+
+    /**
+     * Rejects rows whose username, email or student id repeats an earlier row or exists already,
+     * or whose formation does not exist.
+     */
+    private List<Row> rejectConflicts(Import job, List<Row> rows) {
+        Set<String> existingUsernames = lookup(rows, StudentDto::getUsername, userRepository::findExistingUsernames);
+        Set<String> existingEmails = lookup(rows, StudentDto::getEmail, userRepository::findExistingEmails);
+        Set<String> existingStudentIds = lookup(rows, StudentDto::getStudentId, studentRepository::findExistingStudentIds);
+        Set<Long> formationIds = rows.stream()
+                .map(row -> row.dto.getFormationId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> existingFormations = formationRepository.findAllById(formationIds).stream()
+                .map(Formation::getId)
+                .collect(Collectors.toSet());
+
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        Set<String> studentIds = new HashSet<>();
+        List<Row> valid = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            StudentDto dto = row.dto;
+            List<String> problems = new ArrayList<>();
+            checkUnique("username", dto.getUsername(), usernames, existingUsernames, problems);
+            checkUnique("email", dto.getEmail(), emails, existingEmails, problems);
+            checkUnique("studentId", dto.getStudentId(), studentIds, existingStudentIds, problems);
+            if (dto.getFormationId() != null && !existingFormations.contains(dto.getFormationId())) {
+                problems.add("formationId: formation " + dto.getFormationId() + " not found");
+            }
+            if (problems.isEmpty()) {
+                valid.add(row);
+            } else {
+                job.reject(row.number, String.join("; ", problems));
+                rejectedRows.increment();
+            }
+        }
+        return valid;
+    }
+
+    private static Set<String> lookup(List<Row> rows, Function<StudentDto, String> key,
+                                      Function<Collection<String>, List<String>> query) {
+        List<String> values = rows.stream().map(row -> key.apply(row.dto)).distinct().toList();
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < values.size(); from += LOOKUP_SLICE) {
+            existing.addAll(query.apply(values.subList(from, Math.min(from + LOOKUP_SLICE, values.size()))));
+        }
+        return existing;
+    }
+
+    private static void checkUnique(String column, String value, Set<String> seen, Set<String> existing,
+                                    List<String> problems) {
+        if (!seen.add(value)) {
+            problems.add(column + ": '" + value + "' repeats an earlier row");
+        } else if (existing.contains(value)) {
+            problems.add(column + ": '" + value + "' already exists");
+        }
+    }
+
+    private void write(Import job, List<Row> chunk) {
+        List<CompletableFuture<Void>> hashes = chunk.stream()
+                .map(row -> CompletableFuture.runAsync(() -> row.passwordHash = hash(row.dto.getPassword()),
+                        hashingExecutor))
+                .toList();
+        CompletableFuture.allOf(hashes.toArray(CompletableFuture[]::new)).join();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(chunk));
+            job.imported.addAndGet(chunk.size());
+            importedRows.increment(chunk.size());
+        } catch (DataIntegrityViolationException e) {
+            // Taken since the checks (concurrent registration): find the rows one by one
+            for (Row row : chunk) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(List.of(row)));
+                    job.imported.incrementAndGet();
+                    importedRows.increment();
+                } catch (DataIntegrityViolationException rowConflict) {
+                    job.reject(row.number, "username, email or studentId already exists");
+                    rejectedRows.increment();
+                }
+            }
+        }
+    }
+
+    private String hash(String password) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return passwordEncoder.encode(password);
+            } catch (PasswordHashingUnavailableException e) {
+                if (attempt == HASHING_ATTEMPTS) {
+                    throw e;
+                }
+                // The hashing pool is saturated by logins; let them through before retrying
+                try {
+                    Thread.sleep(1000L * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void insert(List<Row> rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        KeyHolder userIds = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(USER_INSERT, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        Row row = rows.get(i);
+                        statement.setString(1, row.dto.getUsername());
+                        statement.setString(2, row.passwordHash);
+                        statement.setString(3, row.dto.getEmail());
+                        statement.setString(4, Role.STUDENT.name());
+                        statement.setTimestamp(5, now);
+                        statement.setTimestamp(6, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                }, userIds);
+
+        // Keys come back in batch order
+        List<Map<String, Object>> keys = userIds.getKeyList();
+        jdbcTemplate.batchUpdate(STUDENT_INSERT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                Row row = rows.get(i);
+                StudentDto dto = row.dto;
+                statement.setLong(1, ((Number) keys.get(i).values().iterator().next()).longValue());
+                statement.setString(2, dto.getStudentId());
+                statement.setString(3, dto.getFirstName());
+                statement.setString(4, dto.getLastName());
+                statement.setDate(5, row.birthDate != null ? Date.valueOf(row.birthDate) : null);
+                statement.setObject(6, dto.getFormationId(), Types.BIGINT);
+                statement.setString(7, dto.getPromo());
+                statement.setObject(8, dto.getStartYear(), Types.INTEGER);
+                statement.setObject(9, dto.getEndYear(), Types.INTEGER);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete import file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static final class Row {
+        private final int number;
+        private final StudentDto dto;
+        private final LocalDate birthDate;
+        // Written by a hashing thread, read after the chunk's hashes are joined
+        private String passwordHash;
+
+        private Row(int number, StudentDto dto, LocalDate birthDate) {
+            this.number = number;
+            this.dto = dto;
+            this.birthDate = birthDate;
+        }
+    }
+
+    private static final class Import {
+        private final String id;
+        private final String fileName;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final AtomicInteger imported = new AtomicInteger();
+        private final List<StudentImportStatus.RowError> errors = Collections.synchronizedList(new ArrayList<>());
+        private volatile StudentImportStatus.State state = StudentImportStatus.State.QUEUED;
+        private volatile Integer totalRows;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime completedAt;
+        private volatile String error;
+
+        private Import(String id, String fileName) {
+            this.id = id;
+            this.fileName = fileName;
+        }
+
+        private void reject(int row, String message) {
+            errors.add(new StudentImportStatus.RowError(row, message));
+        }
+
+        private StudentImportStatus snapshot() {
+            List<StudentImportStatus.RowError> report;
+            synchronized (errors) {
+                report = new ArrayList<>(errors);
+            }
+            report.sort(Comparator.comparingInt(StudentImportStatus.RowError::getRow));
+            return StudentImportStatus.builder()
+                    .id(id)
+                    .state(state)
+                    .fileName(fileName)
+                    .totalRows(totalRows)
+                    .imported(imported.get())
+                    .rejected(report.size())
+                    .errors(report)
+                    .createdAt(createdAt)
+                    .startedAt(startedAt)
+                    .completedAt(completedAt)
+                    .error(error)
+                    .build();
+        }
+    }
+}
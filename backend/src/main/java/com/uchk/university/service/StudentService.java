@@ -2,20 +2,31 @@ package com.uchk.university.service;
 import com.uchk.university.repository.UserRepository; 
 import com.uchk.university.exception.DuplicateResourceException;
 
+import com.uchk.university.dto.OffsetPage;
 import com.uchk.university.dto.StudentDto;
+import com.uchk.university.dto.StudentFilter;
+import com.uchk.university.dto.StudentImportStatus;
+import com.uchk.university.dto.StudentSummary;
 import com.uchk.university.entity.Formation;
 import com.uchk.university.entity.Role;
 import com.uchk.university.entity.Student;
 import com.uchk.university.entity.User;
 import com.uchk.university.exception.ResourceNotFoundException;
 import com.uchk.university.repository.FormationRepository;
+import com.uchk.university.repository.StudentDirectoryRepository;
 import com.uchk.university.repository.StudentRepository;
 import com.uchk.university.security.SecurityUtils;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
 
 import java.time.ZoneId;
 import java.util.List;
@@ -27,7 +38,20 @@ public class StudentService {
     private final UserService userService;
     private final UserRepository userRepository;
     private final FormationRepository formationRepository;
+    private final StudentImporter studentImporter;
+    private final DirectoryExporter directoryExporter;
     private static final Logger logger = LoggerFactory.getLogger(StudentService.class);
+    // Named like the import columns where they overlap
+    private static final List<DirectoryExporter.Column<StudentSummary>> EXPORT_COLUMNS = List.of(
+            new DirectoryExporter.Column<>("studentId", StudentSummary::getStudentId),
+            new DirectoryExporter.Column<>("lastName", StudentSummary::getLastName),
+            new DirectoryExporter.Column<>("firstName", StudentSummary::getFirstName),
+            new DirectoryExporter.Column<>("email", StudentSummary::getEmail),
+            new DirectoryExporter.Column<>("promo", StudentSummary::getPromo),
+            new DirectoryExporter.Column<>("startYear", StudentSummary::getStartYear),
+            new DirectoryExporter.Column<>("endYear", StudentSummary::getEndYear),
+            new DirectoryExporter.Column<>("formationId", StudentSummary::getFormationId),
+            new DirectoryExporter.Column<>("formationName", StudentSummary::getFormationName));
 
     /**
      * Check if the currently authenticated user is the student with the given ID
@@ -94,6 +118,17 @@ public class StudentService {
         return savedStudent;
     }
 
+    /**
+     * Queues a bulk import of the students in a CSV or XLSX file; see StudentImporter.
+     */
+    public StudentImportStatus startImport(MultipartFile file) throws IOException {
+        return studentImporter.start(file);
+    }
+
+    public StudentImportStatus getImportStatus(String id) {
+        return studentImporter.getStatus(id);
+    }
+
     public Student getStudentById(Long id) {
         return studentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Student not found with id: " + id));
@@ -104,8 +139,36 @@ public class StudentService {
                 .orElseThrow(() -> new ResourceNotFoundException("Student not found with studentId: " + studentId));
     }
 
-    public List<Student> getAllStudents() {
-        return studentRepository.findAll();
+    /**
+     * One page of the student directory, as flat summaries.
+     *
+     * @throws IllegalArgumentException if sorted on an unsupported property
+     */
+    @Transactional(readOnly = true)
+    public OffsetPage<StudentSummary> getStudentDirectory(StudentFilter filter, Pageable pageable) {
+        checkSortProperties(pageable.getSort());
+        Page<StudentSummary> page = studentRepository.findSummaries(filter, pageable);
+        return new OffsetPage<>(page.getContent(), page.getNumber(), page.getSize(), page.getTotalElements());
+    }
+
+    /**
+     * The whole directory for the filter, in the given order, written out as it is read.
+     *
+     * @throws org.springframework.core.task.TaskRejectedException if too many exports are in progress
+     */
+    public DirectoryExporter.Export exportStudents(StudentFilter filter, Sort sort, DirectoryExporter.Format format) {
+        checkSortProperties(sort);
+        return directoryExporter.fromCursor("students", format, EXPORT_COLUMNS,
+                () -> studentRepository.streamSummaries(filter, sort));
+    }
+
+    // Checked here: thrown from the repository it would be translated into a data access error
+    private static void checkSortProperties(Sort sort) {
+        sort.forEach(order -> {
+            if (!StudentDirectoryRepository.SORT_PROPERTIES.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Unsupported sort property: " + order.getProperty());
+            }
+        });
     }
 
     public List<Student> getStudentsByFormation(Long formationId) {
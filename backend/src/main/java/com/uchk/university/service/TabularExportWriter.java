@@ -0,0 +1,124 @@
+package com.uchk.university.service;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Writes a header and rows to an export stream, one row at a time and with constant memory.
+ * CSV is written straight through to the stream. XLSX rows are kept in memory only within a
+ * small window and flushed to a compressed temporary file; the workbook is written to the stream
+ * by {@link #finish()}, so an export that fails part way never looks like a complete file.
+ * The stream is left open.
+ */
+abstract class TabularExportWriter implements Closeable {
+
+    static TabularExportWriter open(DirectoryExporter.Format format, OutputStream out, List<String> header)
+            throws IOException {
+        TabularExportWriter writer = format == DirectoryExporter.Format.XLSX ? new Xlsx(out) : new Csv(out);
+        writer.row(header);
+        return writer;
+    }
+
+    abstract void row(List<?> values) throws IOException;
+
+    /**
+     * Completes the file once every row is written.
+     */
+    abstract void finish() throws IOException;
+
+    private static final class Csv extends TabularExportWriter {
+        // Spreadsheets evaluate cells starting with these as formulas
+        private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+        private final CSVPrinter printer;
+
+        private Csv(OutputStream out) throws IOException {
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            // Lets Excel detect UTF-8; the student import skips it
+            writer.write('\uFEFF');
+            this.printer = new CSVPrinter(writer, CSVFormat.EXCEL);
+        }
+
+        @Override
+        void row(List<?> values) throws IOException {
+            for (Object value : values) {
+                printer.print(value instanceof String text ? neutralize(text) : value);
+            }
+            printer.println();
+        }
+
+        @Override
+        void finish() throws IOException {
+            printer.flush();
+        }
+
+        @Override
+        public void close() {
+            // The stream belongs to the caller
+        }
+
+        private static String neutralize(String text) {
+            return !text.isEmpty() && FORMULA_PREFIXES.indexOf(text.charAt(0)) >= 0 ? "'" + text : text;
+        }
+    }
+
+    private static final class Xlsx extends TabularExportWriter {
+        private static final int ROW_WINDOW = 100;
+
+        private final OutputStream out;
+        private final SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        private final SXSSFSheet sheet;
+        private final CellStyle dateStyle;
+        private int rowIndex;
+
+        private Xlsx(OutputStream out) {
+            this.out = out;
+            workbook.setCompressTempFiles(true);
+            this.sheet = workbook.createSheet("Export");
+            this.dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd"));
+        }
+
+        @Override
+        void row(List<?> values) {
+            Row row = sheet.createRow(rowIndex++);
+            for (int column = 0; column < values.size(); column++) {
+                Object value = values.get(column);
+                if (value instanceof Number number) {
+                    row.createCell(column).setCellValue(number.doubleValue());
+                } else if (value instanceof LocalDate date) {
+                    row.createCell(column).setCellValue(date);
+                    row.getCell(column).setCellStyle(dateStyle);
+                } else if (value != null) {
+                    row.createCell(column).setCellValue(value.toString());
+                }
+            }
+        }
+
+        @Override
+        void finish() throws IOException {
+            workbook.write(out);
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Deletes the temporary sheet file
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+}
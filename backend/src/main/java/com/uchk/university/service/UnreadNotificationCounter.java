@@ -0,0 +1,111 @@
+package com.uchk.university.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uchk.university.repository.NotificationRepository;
+import com.uchk.university.repository.NotificationRepository.UnreadCount;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-user unread notification counts kept in memory, so polling the unread badge does not
+ * hit the database.
+ * A count is loaded from the database the first time it is read, then adjusted as notifications
+ * are created, read or deleted. Adjustments are applied after commit and only to counts already
+ * in memory. Counts may drift (a change racing with the initial load, or made by another node),
+ * so the counts in memory are periodically recomputed from the database.
+ */
+@Component
+@Slf4j
+public class UnreadNotificationCounter {
+    private static final int RECONCILE_BATCH_SIZE = 500;
+
+    private final NotificationRepository notificationRepository;
+    private final Cache<Long, LongAdder> counters;
+
+    public UnreadNotificationCounter(
+            NotificationRepository notificationRepository,
+            @Value("${notification.unread-counter.max-users:50000}") long maxUsers,
+            @Value("${notification.unread-counter.expire-after-access:PT30M}") Duration expireAfterAccess,
+            MeterRegistry meterRegistry) {
+        this.notificationRepository = notificationRepository;
+        this.counters = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, counters, "notifications.unread");
+    }
+
+    public long get(Long userId) {
+        return Math.max(0, counters.get(userId, this::load).sum());
+    }
+
+    /**
+     * Adjusts the user's count once the current transaction commits (immediately outside a
+     * transaction). A count not in memory is left alone; it is loaded on the next read.
+     */
+    public void add(Long userId, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            LongAdder counter = counters.getIfPresent(userId);
+            if (counter != null) {
+                counter.add(delta);
+            }
+        });
+    }
+
+    public void increment(Long userId) {
+        add(userId, 1);
+    }
+
+    @Scheduled(fixedDelayString = "${notification.unread-counter.reconcile-interval:300000}",
+            initialDelayString = "${notification.unread-counter.reconcile-interval:300000}")
+    public void reconcile() {
+        List<Long> userIds = new ArrayList<>(counters.asMap().keySet());
+        int corrected = 0;
+        for (int from = 0; from < userIds.size(); from += RECONCILE_BATCH_SIZE) {
+            List<Long> batch = userIds.subList(from, Math.min(from + RECONCILE_BATCH_SIZE, userIds.size()));
+            Map<Long, Long> actual = new HashMap<>();
+            for (UnreadCount count : notificationRepository.countUnreadByUserIds(batch)) {
+                actual.put(count.getUserId(), count.getUnread());
+            }
+            for (Long userId : batch) {
+                long expected = actual.getOrDefault(userId, 0L);
+                LongAdder counter = counters.getIfPresent(userId);
+                if (counter != null && counter.sum() != expected) {
+                    // Replaced rather than adjusted; a change racing with this is fixed next run
+                    counters.asMap().computeIfPresent(userId, (id, current) -> adder(expected));
+                    corrected++;
+                }
+            }
+        }
+        if (corrected > 0) {
+            log.info("Reconciled {} of {} unread notification counters", corrected, userIds.size());
+        }
+    }
+
+    private LongAdder load(Long userId) {
+        return adder(notificationRepository.countUnreadByUserId(userId));
+    }
+
+    private static LongAdder adder(long value) {
+        LongAdder adder = new LongAdder();
+        adder.add(value);
+        return adder;
+    }
+}
@@ -1,21 +1,40 @@
 package com.uchk.university.service;
 
+import com.uchk.university.config.CacheConfig;
 import com.uchk.university.dto.UserDto;
 import com.uchk.university.entity.Role;
 import com.uchk.university.entity.User;
 import com.uchk.university.exception.ResourceNotFoundException;
 import com.uchk.university.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.uchk.university.security.TokenRevocationRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 
 @Service
-@RequiredArgsConstructor
 public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CacheManager cacheManager;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+    private final Counter cacheInvalidations;
+
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                       CacheManager cacheManager, TokenRevocationRegistry tokenRevocationRegistry,
+                       MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.cacheManager = cacheManager;
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
+        this.cacheInvalidations = Counter.builder("users.cache.invalidations")
+                .description("User cache entries evicted because the user was updated or deleted")
+                .register(meterRegistry);
+    }
 
     public User createUser(UserDto userDto) {
         if (userRepository.existsByUsername(userDto.getUsername())) {
@@ -39,9 +58,22 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
     }
 
+    /**
+     * Served from the users cache. Callers get their own instance, detached on a cache hit, so
+     * changes made to it never leak into the cache or to other requests.
+     */
     public User getUserByUsername(String username) {
-        return userRepository.findByUsername(username)
+        Cache cache = cacheManager.getCache(CacheConfig.USERS_CACHE);
+        User cached = cache != null ? cache.get(username, User.class) : null;
+        if (cached != null) {
+            return copyOf(cached);
+        }
+        User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + username));
+        if (cache != null) {
+            cache.put(username, copyOf(user));
+        }
+        return user;
     }
 
     public List<User> getAllUsers() {
@@ -54,6 +86,8 @@ public class UserService {
 
     public User updateUser(Long id, UserDto userDto) {
         User user = getUserById(id);
+        String previousUsername = user.getUsername();
+        boolean revokeTokens = false;
         
         // Check if username is being changed and if it already exists
         if (!user.getUsername().equals(userDto.getUsername()) && 
@@ -73,22 +107,55 @@ public class UserService {
         
         if (userDto.getPassword() != null && !userDto.getPassword().isEmpty()) {
             user.setPassword(passwordEncoder.encode(userDto.getPassword()));
+            revokeTokens = true;
         }
         
         if (userDto.getEmail() != null) {
             user.setEmail(userDto.getEmail());
         }
         
-        if (userDto.getRole() != null) {
+        if (userDto.getRole() != null && userDto.getRole() != user.getRole()) {
             user.setRole(userDto.getRole());
+            revokeTokens = true;
         }
         
-        return userRepository.save(user);
+        // Tokens issued before a password or role change must no longer be honoured
+        if (revokeTokens) {
+            user.setTokenVersion(user.getTokenVersion() + 1);
+        }
+        
+        User saved = userRepository.save(user);
+        if (revokeTokens) {
+            tokenRevocationRegistry.markChanged(saved.getId(), saved.getTokenVersion());
+        }
+        // Drop cached principals under both names so role/password changes apply immediately
+        evictCachedUser(previousUsername);
+        evictCachedUser(saved.getUsername());
+        return saved;
     }
 
     public void deleteUser(Long id) {
         User user = getUserById(id);
         userRepository.delete(user);
+        tokenRevocationRegistry.markRevoked(id);
+        evictCachedUser(user.getUsername());
+    }
+
+    private void evictCachedUser(String username) {
+        if (username == null) {
+            return;
+        }
+        for (String cacheName : new String[]{CacheConfig.USERS_CACHE, CacheConfig.USER_DETAILS_CACHE}) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null && cache.evictIfPresent(username)) {
+                cacheInvalidations.increment();
+            }
+        }
+    }
+
+    private static User copyOf(User user) {
+        return new User(user.getId(), user.getUsername(), user.getPassword(), user.getEmail(), user.getRole(),
+                user.isActive(), user.getTokenVersion(), user.getCreatedAt(), user.getUpdatedAt());
     }
 
     public boolean existsByUsername(String username) {
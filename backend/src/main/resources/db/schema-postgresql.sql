@@ -0,0 +1,55 @@
+-- Executed on every startup after Hibernate has updated the schema
+-- (spring.jpa.defer-datasource-initialization), so every statement must be idempotent.
+
+-- Full-text search: weighted tsvector over title (A), description (B) and file text (C).
+-- Queries must use the same text search configuration (see DocumentSearchRepository.search).
+ALTER TABLE document_search ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('french', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('french', coalesce(description, '')), 'B') ||
+        setweight(to_tsvector('french', coalesce(content, '')), 'C')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_document_search_vector ON document_search USING GIN (search_vector);
+
+-- Unread notifications per user: mark-all-read and the unread count only visit unread rows.
+CREATE INDEX IF NOT EXISTS idx_notifications_user_unread ON notifications (user_id) WHERE is_read = false;
+
+-- Read notifications past the retention age, oldest first (NotificationRetentionService).
+CREATE INDEX IF NOT EXISTS idx_notifications_read_created ON notifications (created_at) WHERE is_read = true;
+
+-- Archive of expired notifications, range-partitioned by month of creation. The retention job
+-- creates each month's partition before moving rows into it and drops whole partitions once they
+-- pass the archive retention age, so old archives go without a DELETE or a vacuum.
+CREATE TABLE IF NOT EXISTS notifications_archive (
+    id BIGINT NOT NULL,
+    message VARCHAR(255) NOT NULL,
+    type VARCHAR(255),
+    is_read BOOLEAN,
+    created_at TIMESTAMP(6) NOT NULL,
+    user_id BIGINT,
+    archived_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE INDEX IF NOT EXISTS idx_notifications_archive_user_created ON notifications_archive (user_id, created_at);
+
+-- Rate limit counters shared between nodes (security.rate-limit.store=jdbc, JdbcRateLimitStore).
+-- Windows and expiry are epoch milliseconds.
+CREATE TABLE IF NOT EXISTS rate_limit_counters (
+    limit_key VARCHAR(255) NOT NULL,
+    window_start BIGINT NOT NULL,
+    hits BIGINT NOT NULL,
+    expires_at BIGINT NOT NULL,
+    PRIMARY KEY (limit_key, window_start)
+);
+
+CREATE INDEX IF NOT EXISTS idx_rate_limit_counters_expires ON rate_limit_counters (expires_at);
+
+-- Student directory name filter: case-insensitive prefix match on last or first name
+-- (StudentDirectoryRepositoryImpl). Pattern ops let LIKE 'abc%' use the index under any collation.
+CREATE INDEX IF NOT EXISTS idx_students_last_name_prefix ON students (lower(last_name) varchar_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_students_first_name_prefix ON students (lower(first_name) varchar_pattern_ops);
+
+-- Superseded by idx_students_formation_name (declared on Student), which starts with the same column.
+DROP INDEX IF EXISTS idx_students_formation;
@@ -0,0 +1,71 @@
+package com.uchk.university.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.uchk.university.dto.DocumentUploadRequest;
+import com.uchk.university.entity.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-request cost of parsing the "document" part of an upload:
+ * the former path (part decoded to a String, new ObjectMapper, bound to the Document entity)
+ * against the current one (shared ObjectReader bound from the part stream to the upload DTO).
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.uchk.university.benchmark.DocumentMetadataParsingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DocumentMetadataParsingBenchmark {
+
+    private byte[] partBytes;
+    private ObjectReader sharedReader;
+
+    @Setup
+    public void setUp() {
+        String json = "{\"title\":\"Compte rendu du conseil\","
+                + "\"description\":\"Compte rendu de la session ordinaire du conseil de l'universite\","
+                + "\"type\":\"CONSEIL_UNIVERSITE\",\"visibilityLevel\":\"PUBLIC\"}";
+        partBytes = json.getBytes(StandardCharsets.UTF_8);
+        sharedReader = new ObjectMapper().readerFor(DocumentUploadRequest.class);
+    }
+
+    @Benchmark
+    public Document perRequestMapperToEntity() throws IOException {
+        String documentJson = new String(partBytes, StandardCharsets.UTF_8);
+        ObjectMapper mapper = new ObjectMapper();
+        return mapper.readValue(documentJson, Document.class);
+    }
+
+    @Benchmark
+    public DocumentUploadRequest sharedReaderFromStream() throws IOException {
+        return sharedReader.readValue(new ByteArrayInputStream(partBytes));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DocumentMetadataParsingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
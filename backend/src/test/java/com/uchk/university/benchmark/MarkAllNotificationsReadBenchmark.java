@@ -0,0 +1,160 @@
+package com.uchk.university.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares marking all of a user's notifications as read, on an in-memory H2 database:
+ * the former path (load every row, then one full-row UPDATE per changed entity, as dirty
+ * checking issues them without JDBC batching) against the current single UPDATE restricted
+ * to unread rows.
+ * A second user with as many rows shares the table, so the user_id filter matters.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.uchk.university.benchmark.MarkAllNotificationsReadBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MarkAllNotificationsReadBenchmark {
+    private static final long USER_ID = 1L;
+    private static final long OTHER_USER_ID = 2L;
+
+    @Param({"10000"})
+    private int notificationsPerUser;
+
+    // Share of the user's notifications that are still unread
+    @Param({"1.0", "0.1"})
+    private double unreadRatio;
+
+    private Connection connection;
+
+    @Setup(Level.Trial)
+    public void createTable() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:notifications_bench;DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS notifications");
+            statement.execute("CREATE TABLE notifications (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                    + "message VARCHAR(255) NOT NULL, type VARCHAR(255), is_read BOOLEAN, "
+                    + "created_at TIMESTAMP, user_id BIGINT)");
+            statement.execute("CREATE INDEX idx_notifications_user_created ON notifications (user_id, created_at, id)");
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO notifications (message, type, is_read, created_at, user_id) VALUES (?, 'SYSTEM', false, ?, ?)")) {
+            LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+            for (long userId : new long[] {USER_ID, OTHER_USER_ID}) {
+                for (int i = 0; i < notificationsPerUser; i++) {
+                    insert.setString(1, "Nouveau document disponible " + i);
+                    insert.setTimestamp(2, Timestamp.valueOf(start.plusMinutes(i)));
+                    insert.setLong(3, userId);
+                    insert.addBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.setAutoCommit(false);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetReadFlags() throws SQLException {
+        // Every invocation starts from the same mix of read and unread rows
+        int readRows = (int) Math.round(notificationsPerUser * (1 - unreadRatio));
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE notifications SET is_read = false");
+            statement.executeUpdate("UPDATE notifications SET is_read = true WHERE user_id = " + USER_ID
+                    + " AND id IN (SELECT id FROM notifications WHERE user_id = " + USER_ID
+                    + " ORDER BY id LIMIT " + readRows + ")");
+        }
+        connection.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void dropTable() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE notifications");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public int loadModifySaveAll() throws SQLException {
+        List<Object[]> rows = new ArrayList<>();
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT id, message, type, is_read, created_at, user_id FROM notifications "
+                        + "WHERE user_id = ? ORDER BY created_at DESC")) {
+            select.setLong(1, USER_ID);
+            try (ResultSet resultSet = select.executeQuery()) {
+                while (resultSet.next()) {
+                    rows.add(new Object[] {resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3),
+                            resultSet.getTimestamp(5), resultSet.getLong(6), resultSet.getBoolean(4)});
+                }
+            }
+        }
+        int updated = 0;
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE notifications SET message = ?, type = ?, is_read = ?, created_at = ?, user_id = ? WHERE id = ?")) {
+            for (Object[] row : rows) {
+                if ((Boolean) row[5]) {
+                    // Dirty checking skips entities whose flag did not change
+                    continue;
+                }
+                update.setString(1, (String) row[1]);
+                update.setString(2, (String) row[2]);
+                update.setBoolean(3, true);
+                update.setTimestamp(4, (Timestamp) row[3]);
+                update.setLong(5, (Long) row[4]);
+                update.setLong(6, (Long) row[0]);
+                updated += update.executeUpdate();
+            }
+        }
+        connection.commit();
+        return updated;
+    }
+
+    @Benchmark
+    public int bulkUpdateUnread() throws SQLException {
+        int updated;
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE notifications SET is_read = true WHERE user_id = ? AND is_read = false")) {
+            update.setLong(1, USER_ID);
+            updated = update.executeUpdate();
+        }
+        connection.commit();
+        return updated;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MarkAllNotificationsReadBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,80 @@
+package com.uchk.university.security.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalRateLimitStoreTests {
+    private static final long WINDOW = 60_000;
+    // Per-window count held in each half of the counter (20 bits)
+    private static final long MAX_COUNT = (1L << 20) - 1;
+    // Window numbers are kept modulo 2^24
+    private static final long WINDOW_NUMBERS = 1L << 24;
+
+    private final LocalRateLimitStore store = new LocalRateLimitStore(100);
+
+    @Test
+    void countsHitsInTheCurrentWindow() {
+        assertHits(hit("key", 5), 0, 1);
+        assertHits(hit("key", 5), 0, 2);
+        assertHits(hit("key", 5), 0, 3);
+    }
+
+    @Test
+    void rollsTheCurrentWindowIntoThePreviousOne() {
+        hit("key", 5);
+        hit("key", 5);
+
+        assertHits(hit("key", 6), 2, 1);
+        assertHits(hit("key", 6), 2, 2);
+        assertHits(hit("key", 7), 2, 1);
+    }
+
+    @Test
+    void dropsBothWindowsAfterAnIdleWindow() {
+        hit("key", 5);
+        hit("key", 5);
+
+        assertHits(hit("key", 7), 0, 1);
+    }
+
+    @Test
+    void keepsKeysAndScopesApart() {
+        hit("key", 5);
+        hit("key", 5);
+
+        assertHits(hit("other", 5), 0, 1);
+        assertHits(store.hit("other scope", "key", 5 * WINDOW, WINDOW), 0, 1);
+    }
+
+    @Test
+    void saturatesTheCountWithoutSpillingIntoOtherFields() {
+        for (long i = 0; i < MAX_COUNT; i++) {
+            hit("key", 5);
+        }
+        assertHits(hit("key", 5), 0, MAX_COUNT);
+        assertHits(hit("key", 5), 0, MAX_COUNT);
+
+        // Still recognised as the next window: the window number was not overwritten
+        assertHits(hit("key", 6), MAX_COUNT, 1);
+        assertHits(hit("key", 7), 1, 1);
+    }
+
+    @Test
+    void followsWindowsAcrossTheWindowNumberWraparound() {
+        hit("key", WINDOW_NUMBERS - 1);
+        hit("key", WINDOW_NUMBERS - 1);
+
+        assertHits(hit("key", WINDOW_NUMBERS), 2, 1);
+        assertHits(hit("key", WINDOW_NUMBERS + 1), 1, 1);
+    }
+
+    private long hit(String key, long window) {
+        return store.hit("scope", key, window * WINDOW, WINDOW);
+    }
+
+    private static void assertHits(long hits, long previous, long current) {
+        assertThat(RateLimitStore.previous(hits)).as("previous").isEqualTo(previous);
+        assertThat(RateLimitStore.current(hits)).as("current").isEqualTo(current);
+    }
+}
@@ -0,0 +1,98 @@
+package com.uchk.university.security.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginRateLimitFilterTests {
+    private final RateLimitStore store = new LocalRateLimitStore(100);
+    private final LoginRateLimitFilter filter = new LoginRateLimitFilter(
+            new SlidingWindowRateLimiter(store, "login address", 3, Duration.ofMinutes(1)),
+            new SlidingWindowRateLimiter(store, "login", 2, Duration.ofMinutes(1)),
+            new ObjectMapper(), new RateLimitProperties(), new SimpleMeterRegistry());
+
+    @Test
+    void limitsEachUsernameFromAnAddress() throws Exception {
+        assertThat(login("10.0.0.1", "alice").getStatus()).isEqualTo(200);
+        assertThat(login("10.0.0.1", "alice").getStatus()).isEqualTo(200);
+        assertThat(login("10.0.0.1", "alice").getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void limitsAnAddressWhateverTheUsernames() throws Exception {
+        for (String username : List.of("alice", "bob", "carol")) {
+            assertThat(login("10.0.0.1", username).getStatus()).isEqualTo(200);
+        }
+        MockHttpServletResponse rejected = login("10.0.0.1", "dave");
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isNotNull();
+
+        assertThat(login("10.0.0.2", "dave").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void replaysTheBodyToNonBlockingReaders() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(loginRequest("10.0.0.1", "alice"), new MockHttpServletResponse(), chain);
+
+        ServletRequest forwarded = chain.getRequest();
+        ServletInputStream input = forwarded.getInputStream();
+        List<String> events = new ArrayList<>();
+        StringBuilder body = new StringBuilder();
+        input.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                events.add("data");
+                while (input.isReady() && !input.isFinished()) {
+                    body.append((char) input.read());
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                events.add("done");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                events.add("error");
+            }
+        });
+
+        assertThat(events).containsExactly("data", "done");
+        assertThat(body.toString()).isEqualTo(json("alice"));
+    }
+
+    private MockHttpServletResponse login(String address, String username) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(loginRequest(address, username), response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest loginRequest(String address, String username) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setServletPath("/api/auth/login");
+        request.setRemoteAddr(address);
+        request.setContentType("application/json");
+        request.setContent(json(username).getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static String json(String username) {
+        return "{\"username\":\"" + username + "\",\"password\":\"x\"}";
+    }
+}
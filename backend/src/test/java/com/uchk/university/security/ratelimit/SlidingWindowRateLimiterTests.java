@@ -0,0 +1,81 @@
+package com.uchk.university.security.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowRateLimiterTests {
+    private static final long WINDOW = 60_000;
+    // Start of a fixed window
+    private static final long T0 = 1_000 * WINDOW;
+
+    private long now;
+    private final SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(
+            new LocalRateLimitStore(100), "test", 10, Duration.ofMillis(WINDOW), () -> now);
+
+    @Test
+    void allowsUpToTheLimitThenWaitsForTheEndOfTheWindow() {
+        now = T0 + 15_000;
+        assertAllowed("client", 10);
+
+        assertThat(limiter.tryAcquire("client")).isEqualTo(45);
+        // Other keys have their own counters
+        assertThat(limiter.tryAcquire("other")).isZero();
+    }
+
+    @Test
+    void retryAfterIsRoundedUpToAtLeastOneSecond() {
+        now = T0;
+        assertAllowed("client", 10);
+
+        now = T0 + WINDOW - 1;
+        assertThat(limiter.tryAcquire("client")).isEqualTo(1);
+        now = T0 + WINDOW - 1_500;
+        assertThat(limiter.tryAcquire("client")).isEqualTo(2);
+    }
+
+    @Test
+    void weighsThePreviousWindowByTheShareStillInThePeriod() {
+        now = T0;
+        assertAllowed("client", 10);
+
+        // Half way through the next window the previous one still counts for 10 * 0.5
+        now = T0 + WINDOW + WINDOW / 2;
+        assertAllowed("client", 5);
+
+        // 5 + 6 > 10 until the previous window weighs 0.4 at most, i.e. 6 seconds later
+        assertThat(limiter.tryAcquire("client")).isEqualTo(6);
+    }
+
+    @Test
+    void rejectedHitsCount() {
+        now = T0;
+        assertAllowed("client", 10);
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire("client")).isPositive();
+        }
+
+        // 20 hits in the previous window weigh 10 at three quarters through the next one
+        now = T0 + WINDOW + 3 * WINDOW / 4;
+        assertAllowed("client", 5);
+        assertThat(limiter.tryAcquire("client")).isPositive();
+    }
+
+    @Test
+    void forgetsHitsOlderThanTheWindowBefore() {
+        now = T0;
+        assertAllowed("client", 10);
+        assertThat(limiter.tryAcquire("client")).isPositive();
+
+        now = T0 + 2 * WINDOW;
+        assertAllowed("client", 10);
+    }
+
+    private void assertAllowed(String key, int hits) {
+        for (int i = 0; i < hits; i++) {
+            assertThat(limiter.tryAcquire(key)).as("hit %d", i + 1).isZero();
+        }
+    }
+}
@@ -46,6 +46,12 @@ export interface Document {
   creator?: User; 
 }
 
+// One page of GET /api/documents; pass nextCursor back to load the following page
+export interface DocumentPage {
+  items: Document[];
+  nextCursor: string | null;
+}
+
 // Utility function for checking document creator
 export function isDocumentCreatedBy(document: Document, user?: User): boolean {
   if (!document.createdBy?.id || !user) return false;
@@ -23,6 +23,36 @@ export interface Student extends User {
   formationId?: number; // Optional formation ID
 }
 
+// Row of the student directory (GET /api/students), without the user account
+export interface StudentSummary {
+  id: number;
+  studentId: string;
+  firstName: string;
+  lastName: string;
+  email: string;
+  promo?: string;
+  startYear?: number;
+  endYear?: number;
+  formationId?: number;
+  formationName?: string;
+}
+
+// Directory filters, combined; name matches the start of the first or last name
+export interface StudentFilter {
+  formationId?: number;
+  promo?: string;
+  startYear?: number;
+  name?: string;
+}
+
+// One page of a listing paginated by page number (page starts at 0)
+export interface OffsetPage<T> {
+  items: T[];
+  page: number;
+  size: number;
+  totalElements: number;
+}
+
 export interface Staff extends User {
   staffId: string;
   firstName: string;
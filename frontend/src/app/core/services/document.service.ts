@@ -1,8 +1,8 @@
 // src/app/core/services/document.service.ts
 import { Injectable } from '@angular/core';
 import { HttpClient, HttpParams, HttpHeaders, HttpErrorResponse } from '@angular/common/http';
-import { Observable, catchError, throwError, map } from 'rxjs';
-import { Document, DocumentType } from '../models/document.model';
+import { EMPTY, Observable, catchError, throwError, map, expand, reduce } from 'rxjs';
+import { Document, DocumentPage, DocumentType } from '../models/document.model';
 import { environment } from '../../../environments/environment';
 
 @Injectable({
@@ -66,9 +66,22 @@ export class DocumentService {
     return throwError(() => new Error(errorMessage));
   }
 
+  // Follows the cursor to the last page: each request stays bounded, callers get every document
   getAllDocuments(): Observable<Document[]> {
-    return this.http.get<Document[]>(this.apiUrl, { 
+    return this.getDocumentsPage().pipe(
+      expand(page => page.nextCursor ? this.getDocumentsPage(page.nextCursor) : EMPTY),
+      reduce((documents, page) => documents.concat(page.items), [] as Document[])
+    );
+  }
+
+  getDocumentsPage(cursor?: string, limit = 100): Observable<DocumentPage> {
+    let params = new HttpParams().set('limit', limit);
+    if (cursor) {
+      params = params.set('cursor', cursor);
+    }
+    return this.http.get<DocumentPage>(this.apiUrl, { 
       headers: this.createRequestHeaders(),
+      params,
       withCredentials: true  // Important for CORS with credentials
     }).pipe(
       catchError(this.handleError)
@@ -37,4 +37,33 @@ export interface Notification {
   };
   priority?: 'LOW' | 'MEDIUM' | 'HIGH';
   tags?: string[];
-}
\ No newline at end of file
+}
+
+export interface NotificationPage {
+  items: Notification[];
+  nextCursor: string | null;
+}
+
+// Events pushed on /api/notifications/stream
+export type NotificationStreamEvent =
+  | { type: 'notification'; notification: Notification }
+  | { type: 'unread-count'; count: number };
+
+// Role- or formation-wide announcement; exactly one of role and formationId is set
+export interface NotificationBroadcastRequest {
+  message: string;
+  type: NotificationType;
+  role?: string;
+  formationId?: number;
+}
+
+export interface BroadcastStatus {
+  id: string;
+  state: 'QUEUED' | 'RUNNING' | 'COMPLETED' | 'FAILED';
+  total: number | null;
+  delivered: number;
+  createdAt: string;
+  startedAt?: string;
+  completedAt?: string;
+  error?: string;
+}
@@ -9,8 +9,8 @@ import { MatMenuModule } from '@angular/material/menu';
 
 import { NotificationService } from '../services/notification.service';
 import { Notification } from '../models/notification.model';
-import { Subscription, interval } from 'rxjs';
-import { switchMap } from 'rxjs/operators';
+import { Subscription } from 'rxjs';
+import { retry } from 'rxjs/operators';
 
 @Component({
   selector: 'app-notification-alert',
@@ -29,28 +29,36 @@ import { switchMap } from 'rxjs/operators';
 export class NotificationAlertComponent implements OnInit, OnDestroy {
   unreadCount = 0;
   recentNotifications: Notification[] = [];
-  private pollSubscription: Subscription | null = null;
+  private streamSubscription: Subscription | null = null;
 
   constructor(private notificationService: NotificationService) {}
 
   ngOnInit(): void {
     this.loadNotifications();
+    this.loadUnreadCount();
     
-    // Vérifier les nouvelles notifications toutes les minutes
-    this.pollSubscription = interval(60000).pipe(
-      switchMap(() => this.notificationService.getUnreadCount())
+    // Le serveur pousse le nombre de notifications non lues à chaque changement
+    this.streamSubscription = this.notificationService.streamNotifications().pipe(
+      // Rouvre le flux (avec un nouveau ticket) s'il a été fermé par le serveur
+      retry({ delay: 30000 })
     ).subscribe({
-      next: (count) => {
-        if (count !== this.unreadCount) {
+      next: (event) => {
+        if (event.type === 'notification') {
           this.loadNotifications();
+        } else {
+          this.unreadCount = event.count;
+          // Lues depuis un autre onglet : la liste affichée n'est plus à jour
+          if (event.count < this.recentNotifications.length) {
+            this.loadNotifications();
+          }
         }
       }
     });
   }
 
   ngOnDestroy(): void {
-    if (this.pollSubscription) {
-      this.pollSubscription.unsubscribe();
+    if (this.streamSubscription) {
+      this.streamSubscription.unsubscribe();
     }
   }
 
@@ -61,7 +69,15 @@ export class NotificationAlertComponent implements OnInit, OnDestroy {
           .filter(n => !n.read)
           .sort((a, b) => new Date(b.createdAt).getTime() - new Date(a.createdAt).getTime())
           .slice(0, 5);
-        this.unreadCount = this.recentNotifications.length;
+      }
+    });
+  }
+
+  // Le badge affiche le total, pas seulement les notifications récentes listées
+  loadUnreadCount(): void {
+    this.notificationService.getUnreadCount().subscribe({
+      next: (count) => {
+        this.unreadCount = count;
       }
     });
   }
@@ -69,6 +85,7 @@ export class NotificationAlertComponent implements OnInit, OnDestroy {
   markAsRead(id: number): void {
     this.notificationService.markAsRead(id).subscribe({
       next: () => {
+        this.unreadCount = Math.max(0, this.unreadCount - 1);
         this.loadNotifications();
       }
     });
@@ -77,6 +94,7 @@ export class NotificationAlertComponent implements OnInit, OnDestroy {
   markAllAsRead(): void {
     this.notificationService.markAllAsRead().subscribe({
       next: () => {
+        this.unreadCount = 0;
         this.loadNotifications();
       }
     });
@@ -1,8 +1,8 @@
 // src/app/core/services/document.service.ts
 import { Injectable } from '@angular/core';
 import { HttpClient, HttpParams } from '@angular/common/http';
-import { Observable } from 'rxjs';
-import { Document, DocumentType } from '../../../core/models/document.model';
+import { EMPTY, Observable, expand, reduce } from 'rxjs';
+import { Document, DocumentPage, DocumentType } from '../../../core/models/document.model';
 import { environment } from '../../../../environments/environment';
 
 @Injectable({
@@ -13,8 +13,20 @@ export class DocumentService {
 
   constructor(private http: HttpClient) {}
 
+  // Follows the cursor to the last page: each request stays bounded, callers get every document
   getAllDocuments(): Observable<Document[]> {
-    return this.http.get<Document[]>(this.apiUrl);
+    return this.getDocumentsPage().pipe(
+      expand(page => page.nextCursor ? this.getDocumentsPage(page.nextCursor) : EMPTY),
+      reduce((documents, page) => documents.concat(page.items), [] as Document[])
+    );
+  }
+
+  getDocumentsPage(cursor?: string, limit = 100): Observable<DocumentPage> {
+    let params = new HttpParams().set('limit', limit);
+    if (cursor) {
+      params = params.set('cursor', cursor);
+    }
+    return this.http.get<DocumentPage>(this.apiUrl, { params });
   }
 
   getDocumentById(id: number): Observable<Document> {
@@ -4,14 +4,22 @@ import { HttpClient, HttpErrorResponse, HttpParams } from '@angular/common/http'
 import { Observable, throwError } from 'rxjs';
 import { catchError, map } from 'rxjs/operators';
 import { environment } from '../../../../environments/environment';
-import { Notification, NotificationType } from '../models/notification.model';
+import {
+  BroadcastStatus,
+  Notification,
+  NotificationBroadcastRequest,
+  NotificationPage,
+  NotificationStreamEvent,
+  NotificationType
+} from '../models/notification.model';
+import { AuthService } from '../../../core/auth/auth.service';
 
 @Injectable({
   providedIn: 'root'
 })
 export class NotificationService {
   private apiUrl = `${environment.apiUrl}/api/notifications`;
-  constructor(private http: HttpClient) {}
+  constructor(private http: HttpClient, private authService: AuthService) {}
 
   getNotifications(
     page = 0, 
@@ -39,6 +47,17 @@ export class NotificationService {
       );
   }
 
+  getNotificationsPage(cursor?: string, limit = 20): Observable<NotificationPage> {
+    let params = new HttpParams().set('limit', limit);
+    if (cursor) {
+      params = params.set('cursor', cursor);
+    }
+    return this.http.get<NotificationPage>(this.apiUrl, { params })
+      .pipe(
+        catchError(this.handleError)
+      );
+  }
+
   getRecentNotifications(limit = 5): Observable<Notification[]> {
     return this.http.get<Notification[]>(`${this.apiUrl}/recent?limit=${limit}`)
       .pipe(
@@ -46,6 +65,40 @@ export class NotificationService {
       );
   }
 
+  // Pushed notifications and unread counts. EventSource reconnects on its own after network
+  // errors; the observable errors when the server refuses the stream (e.g. expired ticket)
+  streamNotifications(): Observable<NotificationStreamEvent> {
+    return new Observable<NotificationStreamEvent>(subscriber => {
+      if (!this.authService.getToken()) {
+        subscriber.error(new Error('Not authenticated'));
+        return;
+      }
+      let source: EventSource | null = null;
+      // EventSource cannot send headers: the stream takes a short-lived ticket in the query string
+      const ticketRequest = this.http.post<{ ticket: string }>(`${this.apiUrl}/stream/ticket`, {}).subscribe({
+        next: ({ ticket }) => {
+          source = new EventSource(`${this.apiUrl}/stream?access_token=${encodeURIComponent(ticket)}`);
+          source.addEventListener('unread-count', (event: MessageEvent) => {
+            subscriber.next({ type: 'unread-count', count: JSON.parse(event.data).count });
+          });
+          source.addEventListener('notification', (event: MessageEvent) => {
+            subscriber.next({ type: 'notification', notification: JSON.parse(event.data) });
+          });
+          source.onerror = () => {
+            if (source?.readyState === EventSource.CLOSED) {
+              subscriber.error(new Error('Notification stream closed'));
+            }
+          };
+        },
+        error: (error) => subscriber.error(error)
+      });
+      return () => {
+        ticketRequest.unsubscribe();
+        source?.close();
+      };
+    });
+  }
+
   getUnreadCount(): Observable<number> {
     return this.http.get<number>(`${this.apiUrl}/unread/count`)
       .pipe(
@@ -74,6 +127,14 @@ export class NotificationService {
       );
   }
 
+  // Marks or deletes several notifications in one request; returns how many were affected
+  applyBatch(action: 'READ' | 'DELETE', ids: number[]): Observable<number> {
+    return this.http.post<number>(`${this.apiUrl}/batch`, { action, ids })
+      .pipe(
+        catchError(this.handleError)
+      );
+  }
+
   deleteNotification(id: number): Observable<void> {
     return this.http.delete<void>(`${this.apiUrl}/${id}`)
       .pipe(
@@ -81,6 +142,21 @@ export class NotificationService {
       );
   }
 
+  // Queues the broadcast; poll getBroadcastStatus for progress
+  broadcast(request: NotificationBroadcastRequest): Observable<BroadcastStatus> {
+    return this.http.post<BroadcastStatus>(`${this.apiUrl}/broadcast`, request)
+      .pipe(
+        catchError(this.handleError)
+      );
+  }
+
+  getBroadcastStatus(id: string): Observable<BroadcastStatus> {
+    return this.http.get<BroadcastStatus>(`${this.apiUrl}/broadcasts/${id}`)
+      .pipe(
+        catchError(this.handleError)
+      );
+  }
+
   createNotification(notification: Partial<Notification>): Observable<Notification> {
     return this.http.post<Notification>(this.apiUrl, notification)
       .pipe(
@@ -1,8 +1,11 @@
 // src/app/modules/insertion/insertion-form/insertion-form.component.ts
-import { Component, OnInit } from '@angular/core';
+import { Component, OnDestroy, OnInit } from '@angular/core';
 import {
+  AbstractControl,
   FormBuilder,
+  FormControl,
   FormGroup,
+  ValidationErrors,
   Validators,
   ReactiveFormsModule,
 } from '@angular/forms';
@@ -14,8 +17,17 @@ import {
   InsertionStatus,
 } from '../services/insertion.service';
 import { StudentService } from '../../students/services/student.service';
-import { catchError, finalize } from 'rxjs/operators';
-import { of } from 'rxjs';
+import { StudentSummary } from '../../../core/models/user.model';
+import {
+  catchError,
+  debounceTime,
+  distinctUntilChanged,
+  finalize,
+  map,
+  switchMap,
+  takeUntil,
+} from 'rxjs/operators';
+import { Observable, Subject, of } from 'rxjs';
 import { CommonModule } from '@angular/common';
 
 // Import Angular Material Modules
@@ -23,12 +35,18 @@ import { MatCardModule } from '@angular/material/card';
 import { MatFormFieldModule } from '@angular/material/form-field';
 import { MatInputModule } from '@angular/material/input';
 import { MatSelectModule } from '@angular/material/select';
+import { MatAutocompleteModule } from '@angular/material/autocomplete';
 import { MatButtonModule } from '@angular/material/button';
 import { MatIconModule } from '@angular/material/icon';
 import { MatDatepickerModule } from '@angular/material/datepicker';
 import { MatNativeDateModule } from '@angular/material/core';
 import { MatProgressSpinnerModule } from '@angular/material/progress-spinner';
 
+// Student picker value: the chosen student, or the text being typed
+type StudentChoice = Pick<StudentSummary, 'id' | 'studentId' | 'firstName' | 'lastName'>;
+
+const STUDENT_SUGGESTIONS = 20;
+
 @Component({
   selector: 'app-insertion-form',
   templateUrl: './insertion-form.component.html',
@@ -42,6 +60,7 @@ import { MatProgressSpinnerModule } from '@angular/material/progress-spinner';
     MatFormFieldModule,
     MatInputModule,
     MatSelectModule,
+    MatAutocompleteModule,
     MatButtonModule,
     MatIconModule,
     MatDatepickerModule,
@@ -49,12 +68,18 @@ import { MatProgressSpinnerModule } from '@angular/material/progress-spinner';
     MatProgressSpinnerModule,
   ],
 })
-export class InsertionFormComponent implements OnInit {
+export class InsertionFormComponent implements OnInit, OnDestroy {
   insertionForm!: FormGroup;
   isEditMode = false;
   insertionId?: number;
   loading = false;
-  students: any[] = [];
+  // Only valid once a suggestion is picked; the pick sets studentId
+  studentSearch = new FormControl<StudentChoice | string>('', [
+    (control: AbstractControl): ValidationErrors | null =>
+      control.value && typeof control.value === 'object' ? null : { required: true },
+  ]);
+  studentSuggestions$!: Observable<StudentChoice[]>;
+  private destroy$ = new Subject<void>();
   insertionStatuses = Object.values(InsertionStatus);
   contractTypes = ['CDI', 'CDD', 'Alternance', 'Stage', 'Freelance', 'Autre'];
   salaryRanges = [
@@ -79,7 +104,7 @@ export class InsertionFormComponent implements OnInit {
 
   ngOnInit(): void {
     this.initForm();
-    this.loadStudents();
+    this.initStudentSearch();
 
     // Check if we're in edit mode
     this.route.paramMap.subscribe((params) => {
@@ -107,23 +132,55 @@ export class InsertionFormComponent implements OnInit {
     });
   }
 
-  private loadStudents(): void {
+  ngOnDestroy(): void {
+    this.destroy$.next();
+    this.destroy$.complete();
+  }
+
+  // Suggestions from the directory's name prefix filter, one request once typing pauses
+  private initStudentSearch(): void {
+    this.studentSuggestions$ = this.studentSearch.valueChanges.pipe(
+      map((value) => (typeof value === 'string' ? value.trim() : '')),
+      debounceTime(300),
+      distinctUntilChanged(),
+      switchMap((name) =>
+        name
+          ? this.studentService
+              .getStudentDirectory({ name }, 0, STUDENT_SUGGESTIONS)
+              .pipe(
+                map((page) => page.items as StudentChoice[]),
+                catchError(() => of([])),
+              )
+          : of([]),
+      ),
+    );
+
+    // Typing again drops the previous pick
+    this.studentSearch.valueChanges
+      .pipe(takeUntil(this.destroy$))
+      .subscribe((value) => {
+        this.insertionForm.patchValue({
+          studentId: value && typeof value === 'object' ? value.id : '',
+        });
+      });
+  }
+
+  displayStudent(student: StudentChoice | string | null): string {
+    if (!student || typeof student === 'string') {
+      return student || '';
+    }
+    return `${student.firstName} ${student.lastName} (${student.studentId})`;
+  }
+
+  private loadStudent(id: number): void {
     this.studentService
-      .getAllStudents()
-      .pipe(
-        catchError((error) => {
-          this.snackBar.open(
-            'Erreur lors du chargement des étudiants',
-            'Fermer',
-            {
-              duration: 3000,
-            },
-          );
-          return of([]);
-        }),
-      )
-      .subscribe((students) => {
-        this.students = students;
+      .getStudentById(id)
+      .pipe(catchError(() => of(null)))
+      .subscribe((student) => {
+        if (student) {
+          this.studentSearch.setValue(student, { emitEvent: false });
+          this.studentSearch.updateValueAndValidity({ emitEvent: false });
+        }
       });
   }
 
@@ -149,6 +206,9 @@ export class InsertionFormComponent implements OnInit {
       )
       .subscribe((insertion) => {
         if (insertion) {
+          // The student of an existing record cannot be changed
+          this.studentSearch.disable({ emitEvent: false });
+          this.loadStudent(insertion.studentId);
           this.insertionForm.patchValue({
             studentId: insertion.studentId,
             companyName: insertion.companyName,
@@ -169,6 +229,7 @@ export class InsertionFormComponent implements OnInit {
 
   onSubmit(): void {
     if (this.insertionForm.invalid) {
+      this.studentSearch.markAsTouched();
       // Mark all fields as touched to trigger validation visualization
       Object.keys(this.insertionForm.controls).forEach((key) => {
         const control = this.insertionForm.get(key);
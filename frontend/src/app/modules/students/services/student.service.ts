@@ -1,9 +1,9 @@
 // src/app/modules/students/services/student.service.ts
 import { Injectable } from '@angular/core';
-import { HttpClient, HttpErrorResponse, HttpHeaders } from '@angular/common/http';
+import { HttpClient, HttpErrorResponse, HttpHeaders, HttpParams } from '@angular/common/http';
 import { Observable, throwError } from 'rxjs';
 import { catchError, map, tap } from 'rxjs/operators';
-import { Student, StudentDto } from '../../../core/models/user.model';
+import { OffsetPage, Student, StudentDto, StudentFilter, StudentSummary } from '../../../core/models/user.model';
 import { environment } from '../../../../environments/environment';
 import { AuthService } from '../../../core/auth/auth.service';
 import { Role } from '../../../core/models/role.model';
@@ -54,16 +54,11 @@ export class StudentService {
     return null;
   }
 
-  getAllStudents(): Observable<Student[]> {
-    return this.http.get<Student[]>(this.apiUrl, { headers: this.getHeaders() }).pipe(
-      tap(students => {
-        if (students.length === 0) {
-          this.snackBar.open('Aucun étudiant trouvé', 'Fermer', {
-            duration: 3000,
-            panelClass: ['warning-snackbar']
-          });
-        }
-      }),
+  // sort: backend property and direction, e.g. 'lastName,desc'
+  getStudentDirectory(filter: StudentFilter = {}, page = 0, size = 50, sort?: string): Observable<OffsetPage<StudentSummary>> {
+    const params = this.directoryParams(filter, sort).set('page', page).set('size', size);
+
+    return this.http.get<OffsetPage<StudentSummary>>(this.apiUrl, { headers: this.getHeaders(), params }).pipe(
       catchError(error => {
         console.error('Students retrieval error:', error);
         
@@ -89,6 +84,42 @@ export class StudentService {
     );
   }
 
+  // The whole directory for the filter and sort, as a file written by the server
+  exportStudents(filter: StudentFilter = {}, format: 'csv' | 'xlsx' = 'csv', sort?: string): Observable<Blob> {
+    const params = this.directoryParams(filter, sort).set('format', format);
+
+    return this.http.get(`${this.apiUrl}/export`, { headers: this.getHeaders(), params, responseType: 'blob' }).pipe(
+      catchError(error => {
+        console.error('Students export error:', error);
+
+        let errorMessage = 'Erreur lors de l\'export des étudiants';
+        if (error instanceof HttpErrorResponse && error.status === 503) {
+          errorMessage = 'Trop d\'exports en cours, réessayez dans un instant';
+        }
+
+        this.snackBar.open(errorMessage, 'Fermer', {
+          duration: 5000,
+          panelClass: ['error-snackbar']
+        });
+
+        return throwError(() => new Error(errorMessage));
+      })
+    );
+  }
+
+  private directoryParams(filter: StudentFilter, sort?: string): HttpParams {
+    let params = new HttpParams();
+    if (sort) {
+      params = params.set('sort', sort);
+    }
+    Object.entries(filter).forEach(([key, value]) => {
+      if (value !== undefined && value !== null && value !== '') {
+        params = params.set(key, value);
+      }
+    });
+    return params;
+  }
+
   getStudentById(id: number): Observable<Student> {
     return this.http.get<Student>(`${this.apiUrl}/${id}`, { headers: this.getHeaders() })
       .pipe(catchError(this.handleError));
@@ -1,10 +1,10 @@
 // frontend/src/app/modules/students/student-list/student-list.component.ts
-import { Component, OnInit, AfterViewInit, ViewChild, CUSTOM_ELEMENTS_SCHEMA } from '@angular/core';
+import { Component, OnInit, OnDestroy, AfterViewInit, ViewChild, CUSTOM_ELEMENTS_SCHEMA } from '@angular/core';
 import { CommonModule } from '@angular/common';
 import { Router, RouterModule, ActivatedRoute } from '@angular/router';
 import { MatTableModule, MatTableDataSource } from '@angular/material/table';
-import { MatPaginatorModule, MatPaginator } from '@angular/material/paginator';
-import { MatSortModule, MatSort } from '@angular/material/sort';
+import { MatPaginatorModule, MatPaginator, PageEvent } from '@angular/material/paginator';
+import { MatSortModule, MatSort, Sort } from '@angular/material/sort';
 import { MatSnackBarModule, MatSnackBar } from '@angular/material/snack-bar';
 import { MatDialogModule } from '@angular/material/dialog';
 import { MatProgressSpinnerModule } from '@angular/material/progress-spinner';
@@ -16,9 +16,9 @@ import { MatCardModule } from '@angular/material/card';
 
 import { StudentService } from '../services/student.service';
 import { AuthService } from '../../../core/auth/auth.service';
-import { Student, Role } from '../../../core/models/user.model';
-import { catchError, finalize } from 'rxjs/operators';
-import { of } from 'rxjs';
+import { StudentFilter, StudentSummary, Role } from '../../../core/models/user.model';
+import { catchError, debounceTime, distinctUntilChanged, finalize, takeUntil } from 'rxjs/operators';
+import { of, Subject } from 'rxjs';
 
 @Component({
   selector: 'app-student-list',
@@ -42,7 +42,7 @@ import { of } from 'rxjs';
   ],
   schemas: [CUSTOM_ELEMENTS_SCHEMA]
 })
-export class StudentListComponent implements OnInit, AfterViewInit {
+export class StudentListComponent implements OnInit, AfterViewInit, OnDestroy {
   displayedColumns: string[] = [
     'studentId',
     'firstName',
@@ -51,13 +51,23 @@ export class StudentListComponent implements OnInit, AfterViewInit {
     'promo',
     'actions',
   ];
-  dataSource = new MatTableDataSource<Student>();
+  dataSource = new MatTableDataSource<StudentSummary>();
   isLoading = true;
   error = '';
   isAuthorized = false;
 
+  // Paging, sorting and filtering are done by the server
+  filter: StudentFilter = {};
+  totalElements = 0;
+  pageIndex = 0;
+  pageSize = 25;
+  sort?: string;
+  isExporting = false;
+  private nameFilter$ = new Subject<string>();
+  private destroy$ = new Subject<void>();
+
   @ViewChild(MatPaginator) paginator!: MatPaginator;
-  @ViewChild(MatSort) sort!: MatSort;
+  @ViewChild(MatSort) matSort?: MatSort;
 
   constructor(
     private studentService: StudentService,
@@ -73,21 +83,27 @@ export class StudentListComponent implements OnInit, AfterViewInit {
     
     if (this.isAuthorized) {
       // Check route parameters for formation or promo filtering
-      this.route.paramMap.subscribe(params => {
+      this.route.paramMap.pipe(takeUntil(this.destroy$)).subscribe(params => {
         const formationId = params.get('formationId');
         const promo = params.get('promo');
 
-        if (formationId) {
-          // Load students by formation
-          this.loadStudentsByFormation(+formationId);
-        } else if (promo) {
-          // Load students by promo
-          this.loadStudentsByPromo(promo);
-        } else {
-          // Default: load all students
-          this.loadStudents();
-        }
+        // Formation or promo from the route, otherwise all students
+        this.filter = {
+          formationId: formationId ? +formationId : undefined,
+          promo: promo || undefined
+        };
+        this.pageIndex = 0;
+        this.loadStudents();
       });
+
+      // One request once typing pauses, not one per key
+      this.nameFilter$
+        .pipe(debounceTime(300), distinctUntilChanged(), takeUntil(this.destroy$))
+        .subscribe(name => {
+          this.filter = { ...this.filter, name: name || undefined };
+          this.pageIndex = 0;
+          this.loadStudents();
+        });
     } else {
       this.error = 'Vous n\'êtes pas autorisé à voir la liste des étudiants';
       this.snackBar.open(this.error, 'Fermer', {
@@ -99,8 +115,22 @@ export class StudentListComponent implements OnInit, AfterViewInit {
   }
 
   ngAfterViewInit(): void {
-    this.dataSource.paginator = this.paginator;
-    this.dataSource.sort = this.sort;
+    this.matSort?.sortChange.pipe(takeUntil(this.destroy$)).subscribe((sort: Sort) => {
+      this.sort = sort.direction ? `${sort.active},${sort.direction}` : undefined;
+      this.pageIndex = 0;
+      this.loadStudents();
+    });
+  }
+
+  ngOnDestroy(): void {
+    this.destroy$.next();
+    this.destroy$.complete();
+  }
+
+  onPageChange(event: PageEvent): void {
+    this.pageIndex = event.pageIndex;
+    this.pageSize = event.pageSize;
+    this.loadStudents();
   }
 
   loadStudents(): void {
@@ -108,7 +138,7 @@ export class StudentListComponent implements OnInit, AfterViewInit {
     this.error = '';
 
     this.studentService
-      .getAllStudents()
+      .getStudentDirectory(this.filter, this.pageIndex, this.pageSize, this.sort)
       .pipe(
         catchError((err) => {
           console.error('Error loading students:', err);
@@ -117,86 +147,42 @@ export class StudentListComponent implements OnInit, AfterViewInit {
             duration: 3000,
             panelClass: ['error-snackbar']
           });
-          return of([]);
+          return of({ items: [], page: 0, size: this.pageSize, totalElements: 0 });
         }),
         finalize(() => {
           this.isLoading = false;
         })
       )
-      .subscribe((students) => {
-        this.dataSource.data = students;
+      .subscribe((page) => {
+        this.dataSource.data = page.items;
+        this.totalElements = page.totalElements;
       });
   }
 
-  loadStudentsByFormation(formationId: number): void {
-    this.isLoading = true;
-    this.error = '';
-
-    this.studentService.getStudentsByFormation(formationId)
-      .pipe(
-        catchError((err) => {
-          console.error('Error loading students by formation:', err);
-          this.error = 'Impossible de charger les étudiants de cette formation';
-          this.snackBar.open(this.error, 'Fermer', {
-            duration: 3000,
-            panelClass: ['error-snackbar']
-          });
-          return of([]);
-        }),
-        finalize(() => {
-          this.isLoading = false;
-        })
-      )
-      .subscribe((students) => {
-        this.dataSource.data = students;
-        
-        if (students.length === 0) {
-          this.snackBar.open('Aucun étudiant trouvé pour cette formation', 'Fermer', {
-            duration: 3000,
-            panelClass: ['warning-snackbar']
-          });
-        }
-      });
-  }
-
-  loadStudentsByPromo(promo: string): void {
-    this.isLoading = true;
-    this.error = '';
-
-    this.studentService.getStudentsByPromo(promo)
-      .pipe(
-        catchError((err) => {
-          console.error('Error loading students by promo:', err);
-          this.error = 'Impossible de charger les étudiants de cette promotion';
-          this.snackBar.open(this.error, 'Fermer', {
-            duration: 3000,
-            panelClass: ['error-snackbar']
-          });
-          return of([]);
-        }),
-        finalize(() => {
-          this.isLoading = false;
-        })
-      )
-      .subscribe((students) => {
-        this.dataSource.data = students;
-        
-        if (students.length === 0) {
-          this.snackBar.open('Aucun étudiant trouvé pour cette promotion', 'Fermer', {
-            duration: 3000,
-            panelClass: ['warning-snackbar']
-          });
+  // Same filter and sort as the table, all pages
+  exportStudents(format: 'csv' | 'xlsx'): void {
+    this.isExporting = true;
+    this.studentService
+      .exportStudents(this.filter, format, this.sort)
+      .pipe(finalize(() => (this.isExporting = false)))
+      .subscribe({
+        next: (file) => {
+          const url = window.URL.createObjectURL(file);
+          const a = document.createElement('a');
+          a.href = url;
+          a.download = `etudiants-${new Date().toISOString().slice(0, 10)}.${format}`;
+          a.click();
+          window.URL.revokeObjectURL(url);
+        },
+        error: () => {
+          // Reported by the service
         }
       });
   }
 
   applyFilter(event: Event): void {
     const filterValue = (event.target as HTMLInputElement).value;
-    this.dataSource.filter = filterValue.trim().toLowerCase();
-
-    if (this.dataSource.paginator) {
-      this.dataSource.paginator.firstPage();
-    }
+    this.nameFilter$.next(filterValue.trim());
   }
 
   canEdit(): boolean {